@@ -0,0 +1,62 @@
+package com.maureen.customwidget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 对比节点位图模式和直接绘制模式的绘制结果，两种模式的绘制操作数见DrawBudgetTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimeLineViewSpriteTest {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 4000;
+
+    @Test
+    public void spriteMode_matchesDirectDrawing() {
+        Bitmap direct = render(false);
+        Bitmap sprite = render(true);
+        int maxDiff = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                maxDiff = Math.max(maxDiff, channelDiff(direct.getPixel(x, y), sprite.getPixel(x, y)));
+            }
+        }
+        assertTrue("max channel difference " + maxDiff, maxDiff <= 2);
+    }
+
+    private static TimeLineView createView(boolean sprite) {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        TimeLineView view = new TimeLineView(context);
+        view.setNodeCount(1000);
+        view.setNodeSpriteEnabled(sprite);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+        return view;
+    }
+
+    private static Bitmap render(boolean sprite) {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.WHITE);
+        createView(sprite).draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    private static int channelDiff(int a, int b) {
+        int diff = Math.abs(Color.alpha(a) - Color.alpha(b));
+        diff = Math.max(diff, Math.abs(Color.red(a) - Color.red(b)));
+        diff = Math.max(diff, Math.abs(Color.green(a) - Color.green(b)));
+        return Math.max(diff, Math.abs(Color.blue(a) - Color.blue(b)));
+    }
+}
@@ -0,0 +1,115 @@
+package com.maureen.customwidget;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Function: 进程内共享的动画时钟
+ * 所有正在播放动画的控件注册到同一个Choreographer帧回调上，
+ * 每帧只占用主线程一次回调，控件数量增加时消息队列压力不变。只能在主线程使用
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+final class AnimationTicker implements Choreographer.FrameCallback {
+
+    interface Callback {
+        /**
+         * 每帧回调一次
+         *
+         * @param frameTimeMillis 当前帧的单调时钟时间戳，单位ms
+         * @return 是否需要继续接收下一帧
+         */
+        boolean onTick(long frameTimeMillis);
+    }
+
+    private static AnimationTicker sInstance;
+
+    private final ArrayList<Callback> mCallbacks = new ArrayList<>();
+    /**
+     * 是否已经向Choreographer注册了下一帧的回调
+     */
+    private boolean mFramePosted;
+    /**
+     * 是否正在分发帧回调，分发过程中的注销只置空，分发结束后统一移除
+     */
+    private boolean mDispatching;
+
+    private AnimationTicker() {
+    }
+
+    static AnimationTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new AnimationTicker();
+        }
+        return sInstance;
+    }
+
+    void register(Callback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        postFrame();
+    }
+
+    void unregister(Callback callback) {
+        int index = mCallbacks.indexOf(callback);
+        if (index < 0) {
+            return;
+        }
+        if (mDispatching) {
+            mCallbacks.set(index, null);
+        } else {
+            mCallbacks.remove(index);
+        }
+    }
+
+    boolean isRegistered(Callback callback) {
+        return mCallbacks.contains(callback);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        long frameTimeMillis = TimeUnit.NANOSECONDS.toMillis(frameTimeNanos);
+        mDispatching = true;
+        //回调过程中新注册的控件从下一帧开始接收
+        for (int i = 0, size = mCallbacks.size(); i < size; i++) {
+            Callback callback = mCallbacks.get(i);
+            if (callback != null && !callback.onTick(frameTimeMillis)) {
+                mCallbacks.set(i, null);
+            }
+        }
+        mDispatching = false;
+        removeCleared();
+        if (!mCallbacks.isEmpty()) {
+            postFrame();
+        }
+    }
+
+    private void postFrame() {
+        if (!mFramePosted && !mCallbacks.isEmpty()) {
+            mFramePosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * 原地移除已注销的回调，不产生新对象
+     */
+    private void removeCleared() {
+        int size = mCallbacks.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Callback callback = mCallbacks.get(i);
+            if (callback != null) {
+                mCallbacks.set(kept++, callback);
+            }
+        }
+        for (int i = size - 1; i >= kept; i--) {
+            mCallbacks.remove(i);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.maureen.customwidget;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Function: 按尺寸复用ARGB_8888位图的有界缓存池，可以在多个线程中使用
+ * 池中位图总字节数超过上限时，先回收最久未使用尺寸的位图
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class BitmapPool {
+    private final long mMaxBytes;
+    /**
+     * 按访问顺序排列的尺寸到空闲位图的映射，key为宽高拼成的long
+     */
+    private final LinkedHashMap<Long, ArrayDeque<Bitmap>> mPool = new LinkedHashMap<>(16, 0.75f, true);
+    private long mPooledBytes;
+
+    /**
+     * @param maxBytes 池中空闲位图的总字节数上限
+     */
+    public BitmapPool(long maxBytes) {
+        mMaxBytes = Math.max(0, maxBytes);
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | (height & 0xffffffffL);
+    }
+
+    /**
+     * 获取一张透明的位图，池中没有该尺寸时新建
+     */
+    public Bitmap acquire(int width, int height) {
+        Bitmap bitmap = null;
+        synchronized (this) {
+            Long key = key(width, height);
+            ArrayDeque<Bitmap> bitmaps = mPool.get(key);
+            if (bitmaps != null) {
+                bitmap = bitmaps.pollLast();
+                if (bitmaps.isEmpty()) {
+                    mPool.remove(key);
+                }
+                if (bitmap != null) {
+                    mPooledBytes -= bitmap.getAllocationByteCount();
+                }
+            }
+        }
+        if (bitmap == null) {
+            return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    /**
+     * 归还不再使用的位图，归还后调用方不能再访问它。超出上限的位图直接回收
+     */
+    public void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || bitmap.getConfig() != Bitmap.Config.ARGB_8888 || bytes > mMaxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        List<Bitmap> evicted;
+        synchronized (this) {
+            Long key = key(bitmap.getWidth(), bitmap.getHeight());
+            ArrayDeque<Bitmap> bitmaps = mPool.get(key);
+            if (bitmaps == null) {
+                bitmaps = new ArrayDeque<>();
+                mPool.put(key, bitmaps);
+            }
+            bitmaps.addLast(bitmap);
+            mPooledBytes += bytes;
+            evicted = trimToSize(mMaxBytes);
+        }
+        recycle(evicted);
+    }
+
+    /**
+     * 回收池中所有位图
+     */
+    public void clear() {
+        List<Bitmap> evicted;
+        synchronized (this) {
+            evicted = trimToSize(0);
+        }
+        recycle(evicted);
+    }
+
+    public synchronized long getPooledBytes() {
+        return mPooledBytes;
+    }
+
+    public long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * 从最久未使用的尺寸开始移除位图，直到总字节数不超过maxBytes，返回移除的位图
+     */
+    private List<Bitmap> trimToSize(long maxBytes) {
+        List<Bitmap> evicted = null;
+        Iterator<Map.Entry<Long, ArrayDeque<Bitmap>>> iterator = mPool.entrySet().iterator();
+        while (mPooledBytes > maxBytes && iterator.hasNext()) {
+            ArrayDeque<Bitmap> bitmaps = iterator.next().getValue();
+            while (mPooledBytes > maxBytes && !bitmaps.isEmpty()) {
+                Bitmap bitmap = bitmaps.pollFirst();
+                mPooledBytes -= bitmap.getAllocationByteCount();
+                if (evicted == null) {
+                    evicted = new ArrayList<>();
+                }
+                evicted.add(bitmap);
+            }
+            if (bitmaps.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return evicted;
+    }
+
+    private static void recycle(List<Bitmap> bitmaps) {
+        if (bitmaps == null) {
+            return;
+        }
+        for (Bitmap bitmap : bitmaps) {
+            bitmap.recycle();
+        }
+    }
+}
@@ -1,22 +1,39 @@
 package com.maureen.customwidget;
 
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
-import android.text.TextUtils;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.PowerManager;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.View;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import androidx.annotation.RequiresApi;
 import androidx.core.content.ContextCompat;
 
+import com.maureen.customwidget.core.CountFormatter;
+import com.maureen.customwidget.core.Easing;
+import com.maureen.customwidget.core.MetricsSnapshot;
+import com.maureen.customwidget.core.QualityGovernor;
+import com.maureen.customwidget.core.RippleModel;
+import com.maureen.customwidget.core.RippleRingBuffer;
+import com.maureen.customwidget.core.TimeFormatter;
+import com.maureen.customwidget.core.WidgetMetrics;
+
 /**
  * Function: 波纹效果圆形进度条
  * Date:   2019/11/30
@@ -25,6 +42,24 @@ import androidx.core.content.ContextCompat;
  */
 public class CircularProgressBar extends View {
     private static final String TAG = CircularProgressBar.class.getSimpleName();
+
+    /**
+     * 可单独刷新的区域：波纹圆环、命中数量文本、计时器文本、进度圆弧
+     */
+    static final int REGION_RIPPLE = 1;
+    static final int REGION_COUNTER = 1 << 1;
+    static final int REGION_TIMER = 1 << 2;
+    static final int REGION_PROGRESS = 1 << 3;
+    private static final int REGION_COUNT = 4;
+
+    /**
+     * 绘制质量等级，数值越大质量越低，见setQualityGovernorEnabled
+     */
+    public static final int QUALITY_FULL = QualityGovernor.LEVEL_FULL;
+    public static final int QUALITY_FEWER_RIPPLES = QualityGovernor.LEVEL_FEWER_RIPPLES;
+    public static final int QUALITY_HALF_FRAME_RATE = QualityGovernor.LEVEL_HALF_FRAME_RATE;
+    public static final int QUALITY_NO_ANTIALIAS = QualityGovernor.LEVEL_NO_ANTIALIAS;
+    public static final int QUALITY_NO_RIPPLES = QualityGovernor.LEVEL_NO_RIPPLES;
     /**
      * view宽度
      */
@@ -63,7 +98,11 @@ public class CircularProgressBar extends View {
      */
     private Paint timeTextPaint;
 
-    private int center;
+    /**
+     * 圆心坐标，在onSizeChanged中计算，绘制和刷新区域都使用它
+     */
+    private int centerX;
+    private int centerY;
 
     /**
      * 半径
@@ -98,27 +137,75 @@ public class CircularProgressBar extends View {
     private Context mContext;
     private int barSize;
     private int barWidth;
-    private int barBackgroundColor;
-    private int barActionColor;
     private int maxWidth;
     private int maxHeight;
 
-    private int matchNumTextSize;
-    private int matchNumTextColor;
     private String matchNumText;
-
-    private int tipTextSize;
-    private int tipTextColor;
     private String tipText;
+    private String timeText;
 
+    /**
+     * 解析后的样式，画笔与同样式的其他控件共用
+     */
+    private CircularProgressStyle mStyle;
+    /**
+     * 画笔是否已经复制为本控件独有，修改画笔前必须先复制
+     */
+    private boolean mOwnsPaints;
+    private float mDensity;
+    /**
+     * 文本基线的y坐标，尺寸变化时计算
+     */
+    private int mMatchNumBaseline;
+    private int mTipBaseline;
+    private int mTimeBaseline;
 
-    private int timeTextSize;
-    private int timeTextColor;
-    private String timeText;
     /**
-     * 圆环中心填充颜色
+     * 是否缓存中心圆、外层圆环和提示文本这些不随动画变化的内容
+     */
+    private boolean mStaticLayerCacheEnabled = true;
+    /**
+     * 静态内容是否需要重新录制
+     */
+    private boolean mStaticLayerDirty = true;
+    /**
+     * 硬件加速时使用的静态内容显示列表，API 29及以上可用
      */
-    private int centerColor;
+    private RenderNode mStaticLayerNode;
+    /**
+     * 软件绘制时使用的静态内容缓存
+     */
+    private Bitmap mStaticLayerBitmap;
+    private Canvas mStaticLayerCanvas;
+
+    /**
+     * 是否用RenderNode绘制波纹，每个波纹录制一次圆环，之后每帧只修改缩放和透明度
+     */
+    private boolean mRippleNodesEnabled;
+    /**
+     * 每个波纹槽位对应的圆环显示列表，下标为RippleRingBuffer中的槽位
+     */
+    private RenderNode[] mRippleNodes;
+    /**
+     * 每个显示列表录制时的圆环半径，0表示需要重新录制
+     */
+    private float[] mRippleNodeRadius;
+
+    /**
+     * 各刷新区域的范围，下标为区域标志位的序号
+     */
+    private final Rect[] mRegionBounds = new Rect[REGION_COUNT];
+    private final Rect mDirtyRect = new Rect();
+    private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+    /**
+     * 是否绘制最近一次刷新的区域，用于调试
+     */
+    private boolean mDebugDirtyRegions;
+    /**
+     * 上一帧绘制以来请求刷新过的区域
+     */
+    private int mDebugRegionMask;
+    private Paint mDebugRegionPaint;
 
 
     public CircularProgressBar(Context context) {
@@ -141,91 +228,164 @@ public class CircularProgressBar extends View {
 
 
     private void init(AttributeSet attrs) {
-        TypedArray typedArray = getContext().obtainStyledAttributes(attrs, R.styleable.CircularProgressBar);
-        barSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_barSize, dp2px(100));
-        barWidth = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_barWidth, dp2px(3));
-        barBackgroundColor = typedArray.getColor(R.styleable.CircularProgressBar_barBackgroundColor, ContextCompat.getColor(mContext, R.color.blue_dart));
-        barActionColor = typedArray.getColor(R.styleable.CircularProgressBar_barActionColor, ContextCompat.getColor(mContext, android.R.color.white));
-
-        matchNumTextSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_matchNumTextSize, 50);
-        matchNumTextColor = typedArray.getColor(R.styleable.CircularProgressBar_matchNumTextColor, ContextCompat.getColor(mContext, (android.R.color.white)));
-        matchNumText = typedArray.getString(R.styleable.CircularProgressBar_matchNumText);
-
-        tipTextSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_tipTextSize, 17);
-        tipTextColor = typedArray.getColor(R.styleable.CircularProgressBar_tipTextColor, ContextCompat.getColor(mContext, android.R.color.white));
-        tipText = typedArray.getString(R.styleable.CircularProgressBar_tipText);
-
-        timeTextSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_timeTextSize, 15);
-        timeTextColor = typedArray.getColor(R.styleable.CircularProgressBar_timeTextColor, ContextCompat.getColor(mContext, android.R.color.white));
-        timeText = typedArray.getString(R.styleable.CircularProgressBar_timeText);
-
-        centerColor = typedArray.getResourceId(R.styleable.CircularProgressBar_centerColor, ContextCompat.getColor(mContext, R.color.blue));
-
-        if (TextUtils.isEmpty(matchNumText)) {
-            matchNumText = "0";
-        }
-
-        if (TextUtils.isEmpty(tipText)) {
-            tipText = "命中数量";
-        }
+        mStyle = CircularProgressStyle.obtain(mContext, attrs);
+        mDensity = mStyle.density;
+        barSize = mStyle.barSize;
+        barWidth = mStyle.barWidth;
+        matchNumText = mStyle.matchNumText;
+        tipText = mStyle.tipText;
+        timeText = mStyle.timeText;
+
+        mCenterCirclePaint = mStyle.centerCirclePaint;
+        mBackgroundArcPaint = mStyle.backgroundArcPaint;
+        mProgressArcPaint = mStyle.progressArcPaint;
+        matchNumTextPaint = mStyle.matchNumTextPaint;
+        tipTextPaint = mStyle.tipTextPaint;
+        timeTextPaint = mStyle.timeTextPaint;
+
+        //波纹画笔
+        mCirclePaint.setStyle(Paint.Style.STROKE);
+        mCirclePaint.setColor(mStyle.waveColor);
+    }
 
-        if (TextUtils.isEmpty(timeText)) {
-            timeText = "00:00:00";
+    /**
+     * 第一次修改画笔时复制共用的画笔，不影响同样式的其他控件
+     */
+    private void ensureOwnPaints() {
+        if (mOwnsPaints) {
+            return;
         }
-
-        //中心实心圆画笔
-        mCenterCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCenterCirclePaint.setColor(centerColor);
-
-        //外层圆环画笔
-        mBackgroundArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mBackgroundArcPaint.setStrokeWidth(barWidth);
-        mBackgroundArcPaint.setColor(barBackgroundColor);
-        mBackgroundArcPaint.setStyle(Paint.Style.STROKE);
-
-        //外层进度画笔
-        mProgressArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        //设置槽宽度
-        mProgressArcPaint.setStrokeWidth(barWidth);
-        //槽填充颜色
-        mProgressArcPaint.setColor(barActionColor);
-        mProgressArcPaint.setStyle(Paint.Style.STROKE);
-        mProgressArcPaint.setStrokeCap(Paint.Cap.ROUND);
-
-        //命中数量文字画笔
-        matchNumTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        matchNumTextPaint.setTextSize(matchNumTextSize);
-        matchNumTextPaint.setColor(matchNumTextColor);
-        matchNumTextPaint.setTextAlign(Paint.Align.CENTER);
-
-        //命中数量提示文字画笔
-        tipTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        tipTextPaint.setColor(tipTextColor);
-        tipTextPaint.setTextSize(tipTextSize);
-        tipTextPaint.setTextAlign(Paint.Align.CENTER);
-
-        //计时器文本画笔
-        timeTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        timeTextPaint.setColor(timeTextColor);
-        timeTextPaint.setTextSize(timeTextSize);
-        timeTextPaint.setTextAlign(Paint.Align.CENTER);
-        typedArray.recycle();
+        mCenterCirclePaint = new Paint(mCenterCirclePaint);
+        mBackgroundArcPaint = new Paint(mBackgroundArcPaint);
+        mProgressArcPaint = new Paint(mProgressArcPaint);
+        matchNumTextPaint = new Paint(matchNumTextPaint);
+        tipTextPaint = new Paint(tipTextPaint);
+        timeTextPaint = new Paint(timeTextPaint);
+        mOwnsPaints = true;
     }
 
+    /**
+     * 直接设置命中数量文本，会停止setMatchCount的数值显示，只能在主线程调用
+     */
     public void setMatchNumText(String matchNumText) {
         this.matchNumText = matchNumText;
+        mCounterMode = false;
+        mMatchCountAnimating = false;
+        invalidateRegions(REGION_COUNTER);
     }
 
+    /**
+     * 直接设置计时器文本，会停止内置计时器
+     */
     public void setTimeText(String timeText) {
         this.timeText = timeText;
+        mTimerMode = false;
+        mTimerRunning = false;
+        //之后切回计时器时即使数值没变也要重新格式化和重绘
+        mTimerDisplayedValue = -1;
+        removeCallbacks(mTimerTick);
+        invalidateRegions(REGION_TIMER);
+    }
+
+    public void setTipText(String tipText) {
+        this.tipText = tipText;
+        invalidateStaticLayer();
     }
 
     public void setCenterColor(int centerColor) {
+        ensureOwnPaints();
         mCenterCirclePaint.setColor(ContextCompat.getColor(mContext, centerColor));
+        invalidateStaticLayer();
     }
 
     public void setBackgroundArcColor(int backgroundArcColor) {
+        ensureOwnPaints();
         mBackgroundArcPaint.setColor(ContextCompat.getColor(mContext, backgroundArcColor));
+        invalidateStaticLayer();
+    }
+
+    /**
+     * 设置是否缓存静态内容，关闭后每帧重新绘制，便于对比两种方式的开销
+     */
+    public void setStaticLayerCacheEnabled(boolean enabled) {
+        if (mStaticLayerCacheEnabled == enabled) {
+            return;
+        }
+        mStaticLayerCacheEnabled = enabled;
+        if (!enabled) {
+            releaseStaticLayer();
+        }
+        invalidateStaticLayer();
+    }
+
+    public boolean isStaticLayerCacheEnabled() {
+        return mStaticLayerCacheEnabled;
+    }
+
+    /**
+     * 设置是否在控件上方绘制最近刷新的区域
+     */
+    public void setDebugDirtyRegions(boolean debug) {
+        mDebugDirtyRegions = debug;
+        if (debug && mDebugRegionPaint == null) {
+            mDebugRegionPaint = new Paint();
+            mDebugRegionPaint.setStyle(Paint.Style.STROKE);
+            mDebugRegionPaint.setStrokeWidth(dp2px(1));
+            mDebugRegionPaint.setColor(Color.RED);
+        }
+        mDebugRegionMask = 0;
+        invalidateAll();
+    }
+
+    /**
+     * 只刷新指定区域的并集
+     *
+     * @param regions REGION_RIPPLE、REGION_COUNTER、REGION_TIMER、REGION_PROGRESS的组合
+     */
+    void invalidateRegions(int regions) {
+        mDirtyRect.setEmpty();
+        for (int i = 0; i < REGION_COUNT; i++) {
+            if ((regions & (1 << i)) != 0 && mRegionBounds[i] != null) {
+                mDirtyRect.union(mRegionBounds[i]);
+            }
+        }
+        if (mDirtyRect.isEmpty()) {
+            return;
+        }
+        mDebugRegionMask |= regions;
+        recordInvalidate();
+        invalidate(mDirtyRect);
+    }
+
+    /**
+     * 根据尺寸、文本大小计算各刷新区域的范围
+     */
+    private void updateRegionBounds() {
+        for (int i = 0; i < REGION_COUNT; i++) {
+            if (mRegionBounds[i] == null) {
+                mRegionBounds[i] = new Rect();
+            }
+        }
+        int cx = centerX;
+        int cy = centerY;
+        //波纹圆环无法用矩形精确表示，取最大波纹的外接矩形
+        int rippleExtent = (int) Math.ceil(Math.max(mRippleModel.getMaxRadius(), mRippleModel.getInitialRadius()) + mCirclePaint.getStrokeWidth() / 2);
+        mRegionBounds[0].set(cx - rippleExtent, cy - rippleExtent, cx + rippleExtent, cy + rippleExtent);
+        mMatchNumBaseline = cy - dp2px(8);
+        mTipBaseline = cy + dp2px(32);
+        mTimeBaseline = cy + dp2px(54);
+        setTextBandBounds(mRegionBounds[1], matchNumTextPaint, mMatchNumBaseline);
+        setTextBandBounds(mRegionBounds[2], timeTextPaint, mTimeBaseline);
+        int arcExtent = radius + (barWidth + 1) / 2;
+        mRegionBounds[3].set(cx - arcExtent, cy - arcExtent, cx + arcExtent, cy + arcExtent);
+    }
+
+    /**
+     * 文本内容长度会变化，横向取整个控件宽度，纵向取字体的上下边界
+     */
+    private void setTextBandBounds(Rect bounds, Paint paint, int baseline) {
+        paint.getFontMetricsInt(mFontMetrics);
+        bounds.set(0, baseline + mFontMetrics.top, maxWidth, baseline + mFontMetrics.bottom);
     }
 
     @Override
@@ -259,153 +419,1147 @@ public class CircularProgressBar extends View {
         super.onSizeChanged(w, h, oldw, oldh);
         maxWidth = w;
         maxHeight = h;
+        centerX = w / 2;
+        centerY = h / 2;
         width = barSize;
         height = barSize;
         radius = width / 2;
-        mMiddleRect = new RectF((maxWidth / 2) - radius, (maxHeight / 2) - radius, (maxWidth / 2)
-                + radius, (maxHeight / 2) + radius);
-
-        mMiddleProgressRect = new RectF((maxWidth / 2) - radius, (maxHeight / 2) - radius, (maxWidth / 2)
-                + radius, (maxHeight / 2) + radius);
-        mMaxRadius = Math.min(w, h) * 1.0f / 2.0f - barWidth;
-        mInitialRadius = radius * 1.0f + barWidth;
+        mMiddleRect = new RectF(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+
+        mMiddleProgressRect = new RectF(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+        mRippleModel.setMaxRadius(Math.min(w, h) * 1.0f / 2.0f - barWidth);
+        mRippleModel.setInitialRadius(radius * 1.0f + barWidth);
+        mStaticLayerDirty = true;
+        invalidateRippleNodes();
+        updateRegionBounds();
     }
 
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        center = getWidth() / 2;
+        long drawStart = mMetrics != null ? System.nanoTime() : 0;
         radius = barSize / 2;
-        canvas.drawCircle(center, center, radius, mCenterCirclePaint);
-        canvas.drawCircle(center, center, radius, mBackgroundArcPaint);
+        if (mStaticLayerCacheEnabled) {
+            drawCachedStaticLayer(canvas);
+        } else {
+            drawStaticLayer(canvas);
+        }
+        drawProgressArc(canvas);
         drawText(canvas);
 
         //*******************波纹圆*********************
-        Iterator<Circle> iterator = mCircleList.iterator();
-        while (iterator.hasNext()) {
-            Circle circle = iterator.next();
-            float radius = circle.getCurrentRadius();
-            if (System.currentTimeMillis() - circle.mCreateTime < mDuration) {
-                mCirclePaint.setAlpha(circle.getAlpha());
-                mCirclePaint.setStyle(Paint.Style.STROKE);
-                canvas.drawCircle(center, center, radius, mCirclePaint);
-            } else {
-                iterator.remove();
+        //同一帧内所有波纹都使用帧回调给出的同一个时间戳
+        if (mRippleNodesEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && canvas.isHardwareAccelerated()) {
+            drawRippleNodes(canvas);
+        } else {
+            for (int i = 0, size = mRipples.size(); i < size; i++) {
+                float rippleRadius = mRippleModel.sample(mFrameTimeMillis - mRipples.get(i));
+                mCirclePaint.setAlpha(mRippleModel.getSampledAlpha());
+                canvas.drawCircle(centerX, centerY, rippleRadius, mCirclePaint);
             }
         }
-        if (mCircleList.size() > 0) {
-            postInvalidateDelayed(10);
+
+        if (mDebugDirtyRegions) {
+            drawDirtyRegions(canvas);
+        }
+        if (mMetrics != null) {
+            mDrawPending = false;
+            mMetrics.setActiveRipples(mRipples.size());
+            mMetrics.recordDraw(drawStart, System.nanoTime());
+        }
+    }
+
+    private void drawDirtyRegions(Canvas canvas) {
+        for (int i = 0; i < REGION_COUNT; i++) {
+            if ((mDebugRegionMask & (1 << i)) != 0 && mRegionBounds[i] != null) {
+                canvas.drawRect(mRegionBounds[i], mDebugRegionPaint);
+            }
+        }
+        mDebugRegionMask = 0;
+    }
+
+    /**
+     * 绘制不随动画变化的内容：中心实心圆、外层圆环和命中数量提示文本
+     */
+    private void drawStaticLayer(Canvas canvas) {
+        canvas.drawCircle(centerX, centerY, radius, mCenterCirclePaint);
+        canvas.drawCircle(centerX, centerY, radius, mBackgroundArcPaint);
+        //绘制命中数量提示文本
+        canvas.drawText(tipText, centerX, mTipBaseline, tipTextPaint);
+    }
+
+    /**
+     * 硬件加速时把静态内容录制到RenderNode，否则绘制到缓存Bitmap，只在内容变化后重新录制
+     */
+    private void drawCachedStaticLayer(Canvas canvas) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            if (mStaticLayerNode == null) {
+                mStaticLayerNode = new RenderNode(TAG);
+                mStaticLayerDirty = true;
+            }
+            if (mStaticLayerDirty || !mStaticLayerNode.hasDisplayList()) {
+                mStaticLayerNode.setPosition(0, 0, getWidth(), getHeight());
+                drawStaticLayer(mStaticLayerNode.beginRecording());
+                mStaticLayerNode.endRecording();
+                mStaticLayerDirty = false;
+            }
+            canvas.drawRenderNode(mStaticLayerNode);
+            return;
+        }
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        if (mStaticLayerBitmap == null || mStaticLayerBitmap.getWidth() != getWidth()
+                || mStaticLayerBitmap.getHeight() != getHeight()) {
+            if (mStaticLayerBitmap != null) {
+                mStaticLayerBitmap.recycle();
+            }
+            mStaticLayerBitmap = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas = new Canvas(mStaticLayerBitmap);
+            mStaticLayerDirty = true;
+        }
+        if (mStaticLayerDirty) {
+            mStaticLayerBitmap.eraseColor(Color.TRANSPARENT);
+            drawStaticLayer(mStaticLayerCanvas);
+            mStaticLayerDirty = false;
+        }
+        canvas.drawBitmap(mStaticLayerBitmap, 0, 0, null);
+    }
+
+    /**
+     * 用RenderNode绘制波纹。圆环只在缩放后描边宽度偏差超过半个像素时重新录制，
+     * 其余帧只修改显示列表的缩放和透明度属性
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private void drawRippleNodes(Canvas canvas) {
+        int capacity = mRipples.capacity();
+        if (mRippleNodes == null || mRippleNodes.length != capacity) {
+            releaseRippleNodes();
+            mRippleNodes = new RenderNode[capacity];
+            mRippleNodeRadius = new float[capacity];
+        }
+        float strokeWidth = mCirclePaint.getStrokeWidth();
+        for (int i = 0, size = mRipples.size(); i < size; i++) {
+            float rippleRadius = mRippleModel.sample(mFrameTimeMillis - mRipples.get(i));
+            int alpha = mRippleModel.getSampledAlpha();
+            if (rippleRadius <= 0) {
+                continue;
+            }
+            int slot = mRipples.slot(i);
+            RenderNode node = mRippleNodes[slot];
+            if (node == null) {
+                node = new RenderNode(TAG);
+                node.setHasOverlappingRendering(false);
+                mRippleNodes[slot] = node;
+            }
+            float recordedRadius = mRippleNodeRadius[slot];
+            if (recordedRadius <= 0 || !node.hasDisplayList()
+                    || Math.abs(strokeWidth * (rippleRadius / recordedRadius - 1)) > 0.5f) {
+                recordRippleNode(node, rippleRadius);
+                mRippleNodeRadius[slot] = rippleRadius;
+                recordedRadius = rippleRadius;
+            }
+            float scale = rippleRadius / recordedRadius;
+            node.setScaleX(scale);
+            node.setScaleY(scale);
+            node.setAlpha(alpha / 255f);
+            canvas.drawRenderNode(node);
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private void recordRippleNode(RenderNode node, float rippleRadius) {
+        node.setPosition(0, 0, getWidth(), getHeight());
+        node.setPivotX(centerX);
+        node.setPivotY(centerY);
+        mCirclePaint.setAlpha(255);
+        node.beginRecording().drawCircle(centerX, centerY, rippleRadius, mCirclePaint);
+        node.endRecording();
+    }
+
+    /**
+     * 波纹颜色、描边或控件尺寸变化后，所有波纹显示列表都需要重新录制
+     */
+    private void invalidateRippleNodes() {
+        if (mRippleNodeRadius != null) {
+            Arrays.fill(mRippleNodeRadius, 0);
+        }
+    }
+
+    private void releaseRippleNodes() {
+        if (mRippleNodes == null) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            for (RenderNode node : mRippleNodes) {
+                if (node != null) {
+                    node.discardDisplayList();
+                }
+            }
+        }
+        mRippleNodes = null;
+        mRippleNodeRadius = null;
+    }
+
+    /**
+     * 设置是否用RenderNode绘制波纹，只在API 29及以上且开启硬件加速时生效，否则仍然逐帧绘制圆环
+     */
+    public void setRippleRenderNodeEnabled(boolean enabled) {
+        if (mRippleNodesEnabled == enabled) {
+            return;
+        }
+        mRippleNodesEnabled = enabled;
+        if (!enabled) {
+            releaseRippleNodes();
+        }
+        invalidateRegions(REGION_RIPPLE);
+    }
+
+    public boolean isRippleRenderNodeEnabled() {
+        return mRippleNodesEnabled;
+    }
+
+    private void invalidateStaticLayer() {
+        mStaticLayerDirty = true;
+        invalidateAll();
+    }
+
+    /**
+     * 刷新整个控件，所有整体刷新都经过这里统计刷新请求
+     */
+    private void invalidateAll() {
+        recordInvalidate();
+        invalidate();
+    }
+
+    private void releaseStaticLayer() {
+        if (mStaticLayerNode != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mStaticLayerNode.discardDisplayList();
+        }
+        if (mStaticLayerBitmap != null) {
+            mStaticLayerBitmap.recycle();
+            mStaticLayerBitmap = null;
+            mStaticLayerCanvas = null;
+        }
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * 从12点方向顺时针绘制进度圆弧
+     */
+    private void drawProgressArc(Canvas canvas) {
+        if (mMiddleProgressRect != null && mCurrentAngle > 0f) {
+            canvas.drawArc(mMiddleProgressRect, -90f, mCurrentAngle, false, mProgressArcPaint);
         }
     }
 
     private void drawText(Canvas canvas) {
         //正常绘制命中数量文本
-        canvas.drawText(matchNumText, (maxWidth >> 1), (maxHeight / 2) - dp2px(8), matchNumTextPaint);
-        //绘制命中数量提示文本
-        canvas.drawText(tipText, (maxWidth >> 1), (maxHeight / 2) + dp2px(32), tipTextPaint);
+        if (mCounterMode) {
+            canvas.drawText(mMatchCountChars, 0, mMatchCountCharCount, centerX, mMatchNumBaseline, matchNumTextPaint);
+        } else {
+            canvas.drawText(matchNumText, centerX, mMatchNumBaseline, matchNumTextPaint);
+        }
         //绘制计时器文本
-        canvas.drawText(timeText, (maxWidth >> 1), (maxHeight / 2) + dp2px(54), timeTextPaint);
+        if (mTimerMode) {
+            canvas.drawText(mTimeChars, 0, mTimeCharCount, centerX, mTimeBaseline, timeTextPaint);
+        } else {
+            canvas.drawText(timeText, centerX, mTimeBaseline, timeTextPaint);
+        }
     }
 
 
     public int dp2px(int values) {
-        float density = mContext.getResources().getDisplayMetrics().density;
-        return (int) (values * density + 0.5f);
+        return (int) (values * mDensity + 0.5f);
     }
 
     //*************************************波纹圆*****************************************
 
     private Interpolator mInterpolator = new LinearInterpolator();
+    /**
+     * 把插值器包装为波纹模型使用的缓动函数
+     */
+    private final Easing mInterpolatorEasing = new Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            return mInterpolator.getInterpolation(input);
+        }
+    };
 
     private Paint mCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     /**
-     * 初始波纹半径
+     * 波纹的创建、过期和半径透明度计算，一个波纹持续2000ms，每500ms创建一个
      */
-    private float mInitialRadius = radius;
+    private final RippleModel mRippleModel = new RippleModel(2000, 500);
+
+    private boolean mIsRunning;
     /**
-     * 最大波纹半径
+     * 当前帧的时间戳，来自Choreographer的单调时钟，单位ms
      */
-    private float mMaxRadius = (getWidth() - 30) / 2;
+    private long mFrameTimeMillis;
     /**
-     * 一个波纹从创建到消失的持续时间
+     * 动画是否因为detach、不可见或窗口失去焦点而挂起。
+     * 挂起期间波纹时间保存为相对挂起时刻的偏移，恢复时再平移回当前时间
      */
-    private long mDuration = 2000;
+    private boolean mSuspended = true;
     /**
-     * 波纹的创建速度，每500ms创建一个
+     * 存活波纹的创建时间
      */
-    private int mSpeed = 500;
-
-    private boolean mIsRunning;
-    private long mLastCreateTime;
-    private List<Circle> mCircleList = new ArrayList<Circle>();
+    private final RippleRingBuffer mRipples = mRippleModel.ripples();
 
-    private Runnable mCreateCircle = new Runnable() {
+    /**
+     * 注册到共享动画时钟的帧回调，负责创建、移除波纹并触发重绘
+     */
+    private AnimationTicker.Callback mTickCallback = new AnimationTicker.Callback() {
         @Override
-        public void run() {
-            if (mIsRunning) {
-                newCircle();
-                postDelayed(mCreateCircle, mSpeed);
-            }
+        public boolean onTick(long frameTimeMillis) {
+            return onFrame(frameTimeMillis);
         }
     };
 
     public void setWaveColor(int color) {
         mCirclePaint.setColor(color);
+        invalidateRippleNodes();
     }
 
     public void setWaveWidth(int width) {
         mCirclePaint.setStrokeWidth(dp2px(width));
+        invalidateRippleNodes();
+        updateRegionBounds();
     }
 
     public void start() {
         if (!mIsRunning) {
             mIsRunning = true;
-            mCreateCircle.run();
+            mRippleModel.restart(currentAnimationTime());
+            if (!mSuspended) {
+                AnimationTicker.getInstance().register(mTickCallback);
+            }
         }
     }
 
+    /**
+     * 停止创建新的波纹，已有的波纹播放完后不再请求新的帧
+     */
+    public void stop() {
+        mIsRunning = false;
+    }
+
     public void setDuration(long duration) {
-        mDuration = duration;
+        mRippleModel.setDuration(duration);
     }
 
     public void setMaxRadius(float maxRadius) {
-        mMaxRadius = maxRadius;
+        mRippleModel.setMaxRadius(maxRadius);
+        updateRegionBounds();
+    }
+
+    /**
+     * @return 是否需要继续接收下一帧
+     */
+    private boolean onFrame(long frameTimeMillis) {
+        if (mQualityGovernor != null) {
+            if (mQualityGovernor.onFrame(frameTimeMillis - mFrameTimeMillis)) {
+                applyQualityLevel();
+            }
+            mRippleFrameParity = !mRippleFrameParity;
+        }
+        mFrameTimeMillis = frameTimeMillis;
+        int dirtyRegions = 0;
+        long spawnInterval = -1;
+        if (mIsRunning && mQualityLevel < QUALITY_NO_RIPPLES) {
+            //降级后创建间隔加倍，同时存活的波纹减半
+            spawnInterval = mQualityLevel >= QUALITY_FEWER_RIPPLES ? mRippleModel.getSpeed() * 2L : mRippleModel.getSpeed();
+        }
+        long lastCreateTime = mRippleModel.getLastCreateTime();
+        boolean changed = mRippleModel.update(frameTimeMillis, spawnInterval);
+        if (mMetrics != null && mRippleModel.getLastCreateTime() != lastCreateTime) {
+            mMetrics.recordRippleSpawned();
+        }
+        if (changed || !mRipples.isEmpty()) {
+            //降级后波纹隔帧刷新
+            if (changed || mQualityLevel < QUALITY_HALF_FRAME_RATE || mRippleFrameParity) {
+                dirtyRegions |= REGION_RIPPLE;
+            }
+        }
+        if (mMatchCountAnimating && updateMatchCountAnimation(frameTimeMillis)) {
+            dirtyRegions |= REGION_COUNTER;
+        }
+        if (mProgressAnimating && updateProgressAnimation(frameTimeMillis)) {
+            dirtyRegions |= REGION_PROGRESS;
+        }
+        //不可见的控件只推进状态，不重绘
+        if (dirtyRegions != 0 && isShown()) {
+            invalidateRegions(dirtyRegions);
+        }
+        return needsFrames();
+    }
+
+    /**
+     * 是否需要接收帧回调：波纹正在播放、仍有存活的波纹、命中数量或进度正在动画。
+     * 计时器每个显示单位才变化一次，由scheduleTimerTick单独安排
+     */
+    private boolean needsFrames() {
+        return (mIsRunning && mQualityLevel < QUALITY_NO_RIPPLES) || !mRipples.isEmpty() || mMatchCountAnimating || mProgressAnimating;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateSuspended();
+        if (mQualityGovernor != null) {
+            startQualityMonitoring();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        updateSuspended();
+        releaseStaticLayer();
+        releaseRippleNodes();
+        stopQualityMonitoring();
     }
 
-    private void newCircle() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - mLastCreateTime < mSpeed) {
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateSuspended();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updateSuspended();
+    }
+
+    /**
+     * 根据attach状态、可见性和窗口焦点挂起或恢复波纹动画
+     */
+    private void updateSuspended() {
+        boolean suspend = !isAttachedToWindow() || !isShown() || !hasWindowFocus();
+        if (suspend == mSuspended) {
             return;
         }
-        Circle circle = new Circle();
-        mCircleList.add(circle);
-        invalidate();
-        mLastCreateTime = currentTime;
+        mSuspended = suspend;
+        long now = SystemClock.uptimeMillis();
+        if (suspend) {
+            AnimationTicker.getInstance().unregister(mTickCallback);
+            removeCallbacks(mTimerTick);
+            shiftAnimationTime(-now);
+        } else {
+            shiftAnimationTime(now);
+            if (needsFrames()) {
+                AnimationTicker.getInstance().register(mTickCallback);
+            }
+            if (mTimerRunning && updateTimerText()) {
+                invalidateRegions(REGION_TIMER);
+            }
+            scheduleTimerTick();
+        }
+    }
+
+    //*************************************质量调节*****************************************
+
+    /**
+     * 绘制质量等级变化回调
+     */
+    public interface OnQualityLevelChangeListener {
+        void onQualityLevelChanged(CircularProgressBar view, int level);
+    }
+
+    /**
+     * 质量调节器，为null表示不调节
+     */
+    private QualityGovernor mQualityGovernor;
+    private int mQualityLevel = QUALITY_FULL;
+    /**
+     * 隔帧刷新波纹时本帧是否刷新
+     */
+    private boolean mRippleFrameParity;
+    private OnQualityLevelChangeListener mQualityLevelChangeListener;
+    private Object mThermalStatusListener;
+
+    /**
+     * 设置是否根据帧间隔和发热状态（API 29及以上）自动调节绘制质量。
+     * 掉帧或发热时逐级减少波纹、降低波纹刷新率、关闭波纹抗锯齿，严重发热时不再显示波纹，情况好转后逐级恢复。
+     * 单纯的掉帧不会隐藏波纹，因为波纹隐藏后就没有帧间隔可以判断是否恢复
+     */
+    public void setQualityGovernorEnabled(boolean enabled) {
+        if (enabled == (mQualityGovernor != null)) {
+            return;
+        }
+        if (enabled) {
+            mQualityGovernor = new QualityGovernor(1000f / 60);
+            if (isAttachedToWindow()) {
+                startQualityMonitoring();
+            }
+        } else {
+            stopQualityMonitoring();
+            mQualityGovernor = null;
+            applyQualityLevel();
+        }
+    }
+
+    public boolean isQualityGovernorEnabled() {
+        return mQualityGovernor != null;
+    }
+
+    /**
+     * @return 当前绘制质量等级，QUALITY_FULL到QUALITY_NO_RIPPLES
+     */
+    public int getQualityLevel() {
+        return mQualityLevel;
     }
 
-    private class Circle {
-        private long mCreateTime;
+    public void setOnQualityLevelChangeListener(OnQualityLevelChangeListener listener) {
+        mQualityLevelChangeListener = listener;
+    }
 
-        Circle() {
-            mCreateTime = System.currentTimeMillis();
+    private void startQualityMonitoring() {
+        if (getDisplay() != null && getDisplay().getRefreshRate() > 0) {
+            mQualityGovernor.setFrameBudget(1000f / getDisplay().getRefreshRate());
         }
+        mQualityGovernor.resetWindow();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mThermalStatusListener == null) {
+            PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null) {
+                PowerManager.OnThermalStatusChangedListener listener = new PowerManager.OnThermalStatusChangedListener() {
+                    @Override
+                    public void onThermalStatusChanged(int status) {
+                        if (mQualityGovernor != null && mQualityGovernor.setThermalFloor(thermalFloor(status))) {
+                            applyQualityLevel();
+                        }
+                    }
+                };
+                powerManager.addThermalStatusListener(mContext.getMainExecutor(), listener);
+                mThermalStatusListener = listener;
+                listener.onThermalStatusChanged(powerManager.getCurrentThermalStatus());
+            }
+        }
+    }
 
-        int getAlpha() {
-            float percent = (getCurrentRadius() - mInitialRadius) / (mMaxRadius - mInitialRadius);
-            return (int) (255 - mInterpolator.getInterpolation(percent) * 255);
+    private void stopQualityMonitoring() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mThermalStatusListener != null) {
+            PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+            powerManager.removeThermalStatusListener((PowerManager.OnThermalStatusChangedListener) mThermalStatusListener);
+            mThermalStatusListener = null;
         }
+    }
 
-        float getCurrentRadius() {
-            float percent = (System.currentTimeMillis() - mCreateTime) * 1.0f / mDuration;
-            return mInitialRadius + mInterpolator.getInterpolation(percent) * (mMaxRadius - mInitialRadius);
+    /**
+     * 发热状态对应的最低降级等级
+     */
+    private static int thermalFloor(int status) {
+        switch (status) {
+            case PowerManager.THERMAL_STATUS_NONE:
+                return QUALITY_FULL;
+            case PowerManager.THERMAL_STATUS_LIGHT:
+                return QUALITY_FEWER_RIPPLES;
+            case PowerManager.THERMAL_STATUS_MODERATE:
+                return QUALITY_HALF_FRAME_RATE;
+            case PowerManager.THERMAL_STATUS_SEVERE:
+                return QUALITY_NO_ANTIALIAS;
+            default:
+                return QUALITY_NO_RIPPLES;
         }
     }
 
+    /**
+     * 把调节器给出的等级应用到波纹绘制上
+     */
+    private void applyQualityLevel() {
+        int level = mQualityGovernor != null ? mQualityGovernor.getLevel() : QUALITY_FULL;
+        if (level == mQualityLevel) {
+            return;
+        }
+        mQualityLevel = level;
+        mCirclePaint.setAntiAlias(level < QUALITY_NO_ANTIALIAS);
+        invalidateRippleNodes();
+        if (level >= QUALITY_NO_RIPPLES) {
+            mRipples.clear();
+        } else if (needsFrames() && !mSuspended) {
+            AnimationTicker.getInstance().register(mTickCallback);
+        }
+        invalidateRegions(REGION_RIPPLE);
+        if (mQualityLevelChangeListener != null) {
+            mQualityLevelChangeListener.onQualityLevelChanged(this, level);
+        }
+    }
+
+    //*************************************绘制统计*****************************************
+
+    /**
+     * 绘制统计，为null表示未开启，此时绘制和刷新路径上只有一次判空
+     */
+    private WidgetMetrics mMetrics;
+    /**
+     * 上一次刷新请求之后是否还没有绘制，用于统计合并的刷新请求
+     */
+    private boolean mDrawPending;
+
+    /**
+     * 设置是否统计绘制耗时、帧数、刷新请求和波纹数量
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled == (mMetrics != null)) {
+            return;
+        }
+        mMetrics = enabled ? new WidgetMetrics() : null;
+        mDrawPending = false;
+    }
+
+    /**
+     * @return 当前的统计快照，未开启统计时返回null
+     */
+    public MetricsSnapshot getMetricsSnapshot() {
+        WidgetMetrics metrics = mMetrics;
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * 设置统计快照的监听器，开启统计后每隔intervalMillis在绘制后回调一次
+     */
+    public void setMetricsListener(WidgetMetrics.Listener listener, long intervalMillis) {
+        if (mMetrics == null) {
+            setMetricsEnabled(true);
+        }
+        mMetrics.setListener(listener, intervalMillis);
+    }
+
+    private void recordInvalidate() {
+        if (mMetrics != null) {
+            mMetrics.recordInvalidate(mDrawPending);
+            mDrawPending = true;
+        }
+    }
+
+    private void shiftAnimationTime(long delta) {
+        mRippleModel.offset(delta);
+        mFrameTimeMillis += delta;
+        mMatchCountAnimStart += delta;
+        mProgressAnimStart += delta;
+    }
+
+    /**
+     * 当前动画时间，挂起时为相对挂起时刻的0点
+     */
+    private long currentAnimationTime() {
+        return mSuspended ? 0 : SystemClock.uptimeMillis();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        long now = currentAnimationTime();
+        state.running = mIsRunning;
+        state.lastCreateAge = now - mRippleModel.getLastCreateTime();
+        state.rippleAges = new long[mRipples.size()];
+        for (int i = 0; i < state.rippleAges.length; i++) {
+            state.rippleAges[i] = now - mRipples.get(i);
+        }
+        state.matchNumText = matchNumText;
+        state.timeText = timeText;
+        state.timerMode = mTimerMode;
+        state.timerRunning = mTimerRunning;
+        state.timerStart = mTimerStart;
+        state.timerElapsed = mTimerPausedElapsed;
+        state.timerFractionDigits = mTimerFractionDigits;
+        state.counterMode = mCounterMode;
+        state.matchCount = mMatchCountTarget;
+        state.progressAngle = mProgressAnimating ? mProgressAnimTo : mCurrentAngle;
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        matchNumText = savedState.matchNumText;
+        timeText = savedState.timeText;
+        mTimerMode = savedState.timerMode;
+        mTimerRunning = savedState.timerRunning;
+        mTimerFractionDigits = savedState.timerFractionDigits;
+        if (mTimerRunning) {
+            // elapsedRealtime在进程被杀后继续计时，恢复起点后保存到恢复之间的时间也计入
+            mTimerStart = Math.min(savedState.timerStart, SystemClock.elapsedRealtime());
+            mTimerPausedElapsed = 0;
+        } else {
+            mTimerPausedElapsed = savedState.timerElapsed;
+        }
+        mTimerDisplayedValue = -1;
+        updateTimerText();
+        mCounterMode = savedState.counterMode;
+        mMatchCountTarget = savedState.matchCount;
+        mMatchCountAnimating = false;
+        setDisplayedMatchCount(savedState.matchCount);
+        mProgressAnimating = false;
+        mCurrentAngle = savedState.progressAngle;
+
+        long now = currentAnimationTime();
+        mRippleModel.setLastCreateTime(now - savedState.lastCreateAge);
+        mRipples.clear();
+        mRipples.ensureCapacity(savedState.rippleAges.length);
+        for (long age : savedState.rippleAges) {
+            mRipples.add(now - age);
+        }
+        mIsRunning = savedState.running;
+        if (!mSuspended && needsFrames()) {
+            AnimationTicker.getInstance().register(mTickCallback);
+        }
+        scheduleTimerTick();
+        invalidateAll();
+    }
+
     public void setInterpolator(Interpolator interpolator) {
         mInterpolator = interpolator;
         if (mInterpolator == null) {
             mInterpolator = new LinearInterpolator();
         }
+        mRippleModel.setEasing(mInterpolatorEasing);
+    }
+
+    /**
+     * 设置是否把插值器采样成查找表，开启后插值结果在采样点之间线性近似，输入超出[0, 1]时取边界值
+     */
+    public void setInterpolatorTableEnabled(boolean enabled) {
+        mRippleModel.setTableEnabled(enabled);
+    }
+
+    public boolean isInterpolatorTableEnabled() {
+        return mRippleModel.isTableEnabled();
+    }
+
+    private float interpolate(float input) {
+        return mRippleModel.ease(input);
+    }
+
+    //*************************************计时器*****************************************
+
+    /**
+     * 是否使用内置计时器显示计时文本
+     */
+    private boolean mTimerMode;
+    private boolean mTimerRunning;
+    /**
+     * 计时起点，SystemClock.elapsedRealtime()时间
+     */
+    private long mTimerStart;
+    /**
+     * 暂停时已经计时的毫秒数
+     */
+    private long mTimerPausedElapsed;
+    /**
+     * 小数秒位数，0到2
+     */
+    private int mTimerFractionDigits;
+    /**
+     * 当前显示的计时值，单位为显示精度，只有变化时才重新格式化和重绘
+     */
+    private long mTimerDisplayedValue = -1;
+    private final char[] mTimeChars = new char[TimeFormatter.BUFFER_SIZE];
+    private int mTimeCharCount;
+    /**
+     * 计时器在显示值变化的时刻刷新，不占用每一帧的帧回调
+     */
+    private final Runnable mTimerTick = new Runnable() {
+        @Override
+        public void run() {
+            if (updateTimerText() && isShown()) {
+                invalidateRegions(REGION_TIMER);
+            }
+            scheduleTimerTick();
+        }
+    };
+
+    /**
+     * 从当前时刻开始计时，暂停后调用会从暂停处继续
+     */
+    public void startTimer() {
+        if (!mTimerRunning) {
+            startTimer(SystemClock.elapsedRealtime() - mTimerPausedElapsed);
+        }
+    }
+
+    /**
+     * 从指定时刻开始计时
+     *
+     * @param startElapsedRealtime 计时起点，SystemClock.elapsedRealtime()时间
+     */
+    public void startTimer(long startElapsedRealtime) {
+        mTimerStart = startElapsedRealtime;
+        mTimerMode = true;
+        mTimerRunning = true;
+        updateTimerText();
+        invalidateRegions(REGION_TIMER);
+        scheduleTimerTick();
+    }
+
+    public void pauseTimer() {
+        if (!mTimerRunning) {
+            return;
+        }
+        mTimerPausedElapsed = SystemClock.elapsedRealtime() - mTimerStart;
+        mTimerRunning = false;
+        removeCallbacks(mTimerTick);
+        if (updateTimerText()) {
+            invalidateRegions(REGION_TIMER);
+        }
+    }
+
+    /**
+     * 停止计时并归零
+     */
+    public void resetTimer() {
+        mTimerMode = true;
+        mTimerRunning = false;
+        mTimerPausedElapsed = 0;
+        removeCallbacks(mTimerTick);
+        if (updateTimerText()) {
+            invalidateRegions(REGION_TIMER);
+        }
+    }
+
+    public boolean isTimerRunning() {
+        return mTimerRunning;
+    }
+
+    /**
+     * 已计时的毫秒数
+     */
+    public long getTimerElapsed() {
+        return mTimerRunning ? SystemClock.elapsedRealtime() - mTimerStart : mTimerPausedElapsed;
+    }
+
+    /**
+     * 设置计时器显示的小数秒位数
+     *
+     * @param digits 0只显示到秒，1显示十分之一秒，2显示百分之一秒
+     */
+    public void setTimerFractionDigits(int digits) {
+        mTimerFractionDigits = Math.max(0, Math.min(TimeFormatter.MAX_FRACTION_DIGITS, digits));
+        mTimerDisplayedValue = -1;
+        if (mTimerMode && updateTimerText()) {
+            invalidateRegions(REGION_TIMER);
+        }
+        scheduleTimerTick();
+    }
+
+    /**
+     * 在下一个显示单位的边界刷新计时文本，计时器暂停或控件挂起时不安排
+     */
+    private void scheduleTimerTick() {
+        removeCallbacks(mTimerTick);
+        if (!mTimerRunning || mSuspended) {
+            return;
+        }
+        long unit = TimeFormatter.displayUnit(mTimerFractionDigits);
+        postOnAnimationDelayed(mTimerTick, unit - getTimerElapsed() % unit);
+    }
+
+    /**
+     * 显示值变化时把计时格式化到mTimeChars
+     *
+     * @return 显示的文本是否变化
+     */
+    private boolean updateTimerText() {
+        long elapsed = getTimerElapsed();
+        long value = elapsed / TimeFormatter.displayUnit(mTimerFractionDigits);
+        if (value == mTimerDisplayedValue) {
+            return false;
+        }
+        mTimerDisplayedValue = value;
+        mTimeCharCount = TimeFormatter.format(elapsed, mTimerFractionDigits, mTimeChars);
+        return true;
+    }
+
+    //*************************************命中数量*****************************************
+
+    /**
+     * 是否使用setMatchCount设置的数值显示命中数量
+     */
+    private boolean mCounterMode;
+    /**
+     * 最新的命中数量，任意线程写入，主线程读取
+     */
+    private final AtomicLong mPendingMatchCount = new AtomicLong();
+    /**
+     * 是否已经安排了下一帧应用最新的命中数量
+     */
+    private final AtomicBoolean mMatchCountScheduled = new AtomicBoolean();
+    private long mMatchCountTarget;
+    private long mMatchCountDisplayed;
+    private final char[] mMatchCountChars = new char[CountFormatter.BUFFER_SIZE];
+    private int mMatchCountCharCount;
+    /**
+     * 数值滚动动画时长，0表示直接显示新值
+     */
+    private long mMatchCountAnimDuration;
+    private boolean mMatchCountAnimating;
+    private long mMatchCountAnimFrom;
+    private long mMatchCountAnimStart;
+
+    private final Runnable mApplyMatchCount = new Runnable() {
+        @Override
+        public void run() {
+            mMatchCountScheduled.set(false);
+            applyMatchCount(mPendingMatchCount.get());
+        }
+    };
+
+    /**
+     * 设置命中数量，可在任意线程调用。频繁调用时只保留最新值，每帧最多重绘一次
+     */
+    public void setMatchCount(long count) {
+        mPendingMatchCount.set(count);
+        if (mMatchCountScheduled.compareAndSet(false, true)) {
+            postOnAnimation(mApplyMatchCount);
+        } else if (mMetrics != null) {
+            mMetrics.recordInvalidate(true);
+        }
+    }
+
+    /**
+     * 设置命中数量从旧值滚动到新值的动画时长
+     *
+     * @param duration 动画时长，单位ms，0表示不使用动画
+     */
+    public void setMatchCountAnimationDuration(long duration) {
+        mMatchCountAnimDuration = Math.max(0, duration);
+    }
+
+    private void applyMatchCount(long count) {
+        if (mCounterMode && count == mMatchCountTarget) {
+            return;
+        }
+        boolean animate = mCounterMode && mMatchCountAnimDuration > 0;
+        mCounterMode = true;
+        mMatchCountTarget = count;
+        if (animate) {
+            mMatchCountAnimFrom = mMatchCountDisplayed;
+            mMatchCountAnimStart = currentAnimationTime();
+            mMatchCountAnimating = true;
+            if (!mSuspended) {
+                AnimationTicker.getInstance().register(mTickCallback);
+            }
+            return;
+        }
+        mMatchCountAnimating = false;
+        setDisplayedMatchCount(count);
+        invalidateRegions(REGION_COUNTER);
+    }
+
+    /**
+     * 按动画进度推进显示的命中数量
+     *
+     * @return 显示的数值是否变化
+     */
+    private boolean updateMatchCountAnimation(long frameTimeMillis) {
+        float fraction = (frameTimeMillis - mMatchCountAnimStart) * 1.0f / mMatchCountAnimDuration;
+        long value;
+        if (fraction >= 1f) {
+            value = mMatchCountTarget;
+            mMatchCountAnimating = false;
+        } else {
+            float interpolated = interpolate(Math.max(0f, fraction));
+            value = mMatchCountAnimFrom + Math.round((mMatchCountTarget - mMatchCountAnimFrom) * (double) interpolated);
+        }
+        return setDisplayedMatchCount(value);
+    }
+
+    private boolean setDisplayedMatchCount(long value) {
+        if (value == mMatchCountDisplayed && mMatchCountCharCount > 0) {
+            return false;
+        }
+        mMatchCountDisplayed = value;
+        mMatchCountCharCount = CountFormatter.format(value, mMatchCountChars);
+        return true;
+    }
+
+    //*************************************进度圆弧*****************************************
+
+    /**
+     * 最新的进度请求，高32位为进度的float位，低32位为动画时长，任意线程写入，主线程读取
+     */
+    private final AtomicLong mPendingProgress = new AtomicLong();
+    /**
+     * 是否已经安排了下一帧应用最新的进度
+     */
+    private final AtomicBoolean mProgressScheduled = new AtomicBoolean();
+    private boolean mProgressAnimating;
+    private float mProgressAnimFrom;
+    private float mProgressAnimTo;
+    private long mProgressAnimStart;
+    private long mProgressAnimDuration;
+
+    private final Runnable mApplyProgress = new Runnable() {
+        @Override
+        public void run() {
+            mProgressScheduled.set(false);
+            long pending = mPendingProgress.get();
+            applyProgress(Float.intBitsToFloat((int) (pending >>> 32)), (int) pending);
+        }
+    };
+
+    /**
+     * 设置进度，可在任意线程调用。频繁调用时只保留最新值，每帧最多重绘一次
+     *
+     * @param progress 进度，0到1
+     */
+    public void setProgress(float progress) {
+        setProgressAnimated(progress, 0);
+    }
+
+    /**
+     * 以动画方式从当前进度过渡到新进度，可在任意线程调用，动画使用波纹的插值器
+     *
+     * @param progress 进度，0到1，超出范围时取边界值
+     * @param duration 动画时长，单位ms
+     * @throws IllegalArgumentException progress为NaN
+     */
+    public void setProgressAnimated(float progress, int duration) {
+        if (Float.isNaN(progress)) {
+            throw new IllegalArgumentException("progress is NaN");
+        }
+        progress = Math.max(0f, Math.min(1f, progress));
+        long pending = ((long) Float.floatToIntBits(progress) << 32) | (Math.max(0, duration) & 0xFFFFFFFFL);
+        mPendingProgress.set(pending);
+        if (mProgressScheduled.compareAndSet(false, true)) {
+            postOnAnimation(mApplyProgress);
+        } else if (mMetrics != null) {
+            mMetrics.recordInvalidate(true);
+        }
+    }
+
+    /**
+     * 当前显示的进度，0到1
+     */
+    public float getProgress() {
+        return mCurrentAngle / mTotalAngle;
+    }
+
+    private void applyProgress(float progress, int duration) {
+        float angle = progress * mTotalAngle;
+        if (duration <= 0) {
+            mProgressAnimating = false;
+            if (angle != mCurrentAngle) {
+                mCurrentAngle = angle;
+                invalidateRegions(REGION_PROGRESS);
+            }
+            return;
+        }
+        mProgressAnimFrom = mCurrentAngle;
+        mProgressAnimTo = angle;
+        mProgressAnimStart = currentAnimationTime();
+        mProgressAnimDuration = duration;
+        mProgressAnimating = true;
+        if (!mSuspended) {
+            AnimationTicker.getInstance().register(mTickCallback);
+        }
+    }
+
+    /**
+     * 按动画进度推进进度圆弧
+     *
+     * @return 圆弧角度是否变化
+     */
+    private boolean updateProgressAnimation(long frameTimeMillis) {
+        float fraction = (frameTimeMillis - mProgressAnimStart) * 1.0f / mProgressAnimDuration;
+        float angle;
+        if (fraction >= 1f) {
+            angle = mProgressAnimTo;
+            mProgressAnimating = false;
+        } else {
+            angle = mProgressAnimFrom + (mProgressAnimTo - mProgressAnimFrom)
+                    * interpolate(Math.max(0f, fraction));
+        }
+        if (angle == mCurrentAngle) {
+            return false;
+        }
+        mCurrentAngle = angle;
+        return true;
+    }
+
+    /**
+     * 配置变化时保存的动画相位和文本，动画时间以相对保存时刻的偏移保存，
+     * 运行中的计时器保存elapsedRealtime起点，暂停的计时器保存已计时长
+     */
+    static class SavedState extends BaseSavedState {
+        boolean running;
+        long lastCreateAge;
+        long[] rippleAges;
+        String matchNumText;
+        String timeText;
+        boolean timerMode;
+        boolean timerRunning;
+        long timerStart;
+        long timerElapsed;
+        int timerFractionDigits;
+        boolean counterMode;
+        long matchCount;
+        float progressAngle;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            running = in.readInt() != 0;
+            lastCreateAge = in.readLong();
+            rippleAges = in.createLongArray();
+            matchNumText = in.readString();
+            timeText = in.readString();
+            timerMode = in.readInt() != 0;
+            timerRunning = in.readInt() != 0;
+            timerStart = in.readLong();
+            timerElapsed = in.readLong();
+            timerFractionDigits = in.readInt();
+            counterMode = in.readInt() != 0;
+            matchCount = in.readLong();
+            progressAngle = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(running ? 1 : 0);
+            out.writeLong(lastCreateAge);
+            out.writeLongArray(rippleAges);
+            out.writeString(matchNumText);
+            out.writeString(timeText);
+            out.writeInt(timerMode ? 1 : 0);
+            out.writeInt(timerRunning ? 1 : 0);
+            out.writeLong(timerStart);
+            out.writeLong(timerElapsed);
+            out.writeInt(timerFractionDigits);
+            out.writeInt(counterMode ? 1 : 0);
+            out.writeLong(matchCount);
+            out.writeFloat(progressAngle);
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
     }
 }
@@ -0,0 +1,130 @@
+package com.maureen.customwidget;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import com.maureen.customwidget.core.CountFormatter;
+import com.maureen.customwidget.core.RippleModel;
+import com.maureen.customwidget.core.RippleRingBuffer;
+import com.maureen.customwidget.core.TimeFormatter;
+
+/**
+ * Function: 不依赖View绘制CircularProgressBar的外观，包括中心圆、圆环、进度、文字和波纹
+ * 持有自己的画笔副本，一个实例只能在一个线程中使用
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+final class CircularProgressPainter {
+    /**
+     * 没有命中数量时显示样式中的matchNumText
+     */
+    static final long NO_COUNT = Long.MIN_VALUE;
+
+    private final CircularProgressStyle mStyle;
+    private final RippleModel mRippleModel = new RippleModel(2000, 500);
+    private final RippleRingBuffer mRipples = mRippleModel.ripples();
+
+    private final Paint mCenterCirclePaint;
+    private final Paint mBackgroundArcPaint;
+    private final Paint mProgressArcPaint;
+    private final Paint mMatchNumTextPaint;
+    private final Paint mTipTextPaint;
+    private final Paint mTimeTextPaint;
+    private final Paint mCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mProgressRect = new RectF();
+
+    private final char[] mMatchCountChars = new char[CountFormatter.BUFFER_SIZE];
+    private final char[] mTimeChars = new char[TimeFormatter.BUFFER_SIZE];
+
+    private int mCenterX;
+    private int mCenterY;
+    private int mRadius;
+    private int mMatchNumBaseline;
+    private int mTipBaseline;
+    private int mTimeBaseline;
+
+    CircularProgressPainter(CircularProgressStyle style) {
+        mStyle = style;
+        mCenterCirclePaint = new Paint(style.centerCirclePaint);
+        mBackgroundArcPaint = new Paint(style.backgroundArcPaint);
+        mProgressArcPaint = new Paint(style.progressArcPaint);
+        mMatchNumTextPaint = new Paint(style.matchNumTextPaint);
+        mTipTextPaint = new Paint(style.tipTextPaint);
+        mTimeTextPaint = new Paint(style.timeTextPaint);
+        mCirclePaint.setStyle(Paint.Style.STROKE);
+    }
+
+    RippleModel getRippleModel() {
+        return mRippleModel;
+    }
+
+    void setSize(int width, int height) {
+        int barWidth = mStyle.barWidth;
+        mCenterX = width / 2;
+        mCenterY = height / 2;
+        mRadius = mStyle.barSize / 2;
+        int cy = mCenterY;
+        mProgressRect.set(mCenterX - mRadius, cy - mRadius, mCenterX + mRadius, cy + mRadius);
+        mRippleModel.setMaxRadius(Math.min(width, height) * 1.0f / 2.0f - barWidth);
+        mRippleModel.setInitialRadius(mRadius * 1.0f + barWidth);
+        mMatchNumBaseline = cy - mStyle.dp2px(8);
+        mTipBaseline = cy + mStyle.dp2px(32);
+        mTimeBaseline = cy + mStyle.dp2px(54);
+    }
+
+    void setCenterColor(int color) {
+        mCenterCirclePaint.setColor(color);
+    }
+
+    void setBackgroundArcColor(int color) {
+        mBackgroundArcPaint.setColor(color);
+    }
+
+    void setWaveColor(int color) {
+        mCirclePaint.setColor(color);
+    }
+
+    void setWaveWidth(float width) {
+        mCirclePaint.setStrokeWidth(width);
+    }
+
+    /**
+     * @param now           波纹的当前时间，与RippleModel使用的时间基准一致
+     * @param matchCount    命中数量，NO_COUNT时显示样式中的文字
+     * @param tipText       提示文字，为null时显示样式中的文字
+     * @param elapsedMillis 计时时长，小于0时显示样式中的文字
+     * @param progress      进度，0到1
+     */
+    void draw(Canvas canvas, long now, long matchCount, String tipText, long elapsedMillis,
+              int fractionDigits, float progress) {
+        canvas.drawCircle(mCenterX, mCenterY, mRadius, mCenterCirclePaint);
+        canvas.drawCircle(mCenterX, mCenterY, mRadius, mBackgroundArcPaint);
+        canvas.drawText(tipText != null ? tipText : mStyle.tipText, mCenterX, mTipBaseline, mTipTextPaint);
+
+        float sweep = progress * 360f;
+        if (sweep > 0f) {
+            canvas.drawArc(mProgressRect, -90f, sweep, false, mProgressArcPaint);
+        }
+
+        if (matchCount != NO_COUNT) {
+            int count = CountFormatter.format(matchCount, mMatchCountChars);
+            canvas.drawText(mMatchCountChars, 0, count, mCenterX, mMatchNumBaseline, mMatchNumTextPaint);
+        } else {
+            canvas.drawText(mStyle.matchNumText, mCenterX, mMatchNumBaseline, mMatchNumTextPaint);
+        }
+        if (elapsedMillis >= 0) {
+            int count = TimeFormatter.format(elapsedMillis, fractionDigits, mTimeChars);
+            canvas.drawText(mTimeChars, 0, count, mCenterX, mTimeBaseline, mTimeTextPaint);
+        } else {
+            canvas.drawText(mStyle.timeText, mCenterX, mTimeBaseline, mTimeTextPaint);
+        }
+
+        for (int i = 0, size = mRipples.size(); i < size; i++) {
+            float rippleRadius = mRippleModel.sample(now - mRipples.get(i));
+            mCirclePaint.setAlpha(mRippleModel.getSampledAlpha());
+            canvas.drawCircle(mCenterX, mCenterY, rippleRadius, mCirclePaint);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.maureen.customwidget;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+import androidx.annotation.StyleRes;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Function: 解析后的CircularProgressBar样式，包括属性值和画笔
+ * 同一主题下相同样式的控件共用一个实例，控件只读这里的画笔，需要修改时先复制一份
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+final class CircularProgressStyle {
+    /**
+     * 按主题缓存，key由样式资源和布局中直接写的属性组成，主题被回收后对应的样式一起释放
+     */
+    private static final WeakHashMap<Resources.Theme, HashMap<String, CircularProgressStyle>> sCache = new WeakHashMap<>();
+
+    /**
+     * 解析时的配置，配置变化（如屏幕密度、夜间模式）后缓存失效
+     */
+    private final Configuration mConfiguration;
+
+    final float density;
+    final int barSize;
+    final int barWidth;
+    final String matchNumText;
+    final String tipText;
+    final String timeText;
+    /**
+     * 波纹颜色，没有对应的属性，与新建Paint的默认颜色一致
+     */
+    final int waveColor = Color.BLACK;
+
+    final Paint centerCirclePaint;
+    final Paint backgroundArcPaint;
+    final Paint progressArcPaint;
+    final Paint matchNumTextPaint;
+    final Paint tipTextPaint;
+    final Paint timeTextPaint;
+
+    /**
+     * 获取样式，同一主题下样式和布局属性都相同的控件共用一个实例，如列表中同一布局的各项
+     */
+    static CircularProgressStyle obtain(Context context, AttributeSet attrs) {
+        return obtain(context, attrs, 0);
+    }
+
+    /**
+     * @param defStyleRes 布局中没有指定style时使用的样式，0表示只使用主题中的值
+     */
+    static CircularProgressStyle obtain(Context context, AttributeSet attrs, @StyleRes int defStyleRes) {
+        String key = cacheKey(attrs, defStyleRes);
+        Resources.Theme theme = context.getTheme();
+        Configuration configuration = context.getResources().getConfiguration();
+        synchronized (sCache) {
+            HashMap<String, CircularProgressStyle> styles = sCache.get(theme);
+            if (styles == null) {
+                styles = new HashMap<>();
+                sCache.put(theme, styles);
+            }
+            CircularProgressStyle style = styles.get(key);
+            if (style == null || !style.mConfiguration.equals(configuration)) {
+                style = new CircularProgressStyle(context, attrs, defStyleRes);
+                styles.put(key, style);
+            }
+            return style;
+        }
+    }
+
+    /**
+     * 缓存key：style、defStyleRes以及布局中直接写的CircularProgressBar属性名和原始值。
+     * 引用和主题属性的原始值是资源id，解析结果只随主题和配置变化，已由缓存的分组和失效处理
+     */
+    private static String cacheKey(AttributeSet attrs, int defStyleRes) {
+        StringBuilder key = new StringBuilder();
+        key.append(attrs != null ? attrs.getStyleAttribute() : 0).append('/').append(defStyleRes);
+        if (attrs != null) {
+            for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+                int attr = attrs.getAttributeNameResource(i);
+                if (attr != 0 && Arrays.binarySearch(R.styleable.CircularProgressBar, attr) >= 0) {
+                    key.append(';').append(attr).append('=').append(attrs.getAttributeValue(i));
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private CircularProgressStyle(Context context, AttributeSet attrs, int defStyleRes) {
+        mConfiguration = new Configuration(context.getResources().getConfiguration());
+        density = context.getResources().getDisplayMetrics().density;
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.CircularProgressBar, 0, defStyleRes);
+        barSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_barSize, dp2px(100));
+        barWidth = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_barWidth, dp2px(3));
+        int barBackgroundColor = typedArray.getColor(R.styleable.CircularProgressBar_barBackgroundColor, ContextCompat.getColor(context, R.color.blue_dart));
+        int barActionColor = typedArray.getColor(R.styleable.CircularProgressBar_barActionColor, ContextCompat.getColor(context, android.R.color.white));
+
+        int matchNumTextSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_matchNumTextSize, 50);
+        int matchNumTextColor = typedArray.getColor(R.styleable.CircularProgressBar_matchNumTextColor, ContextCompat.getColor(context, android.R.color.white));
+        String matchNumText = typedArray.getString(R.styleable.CircularProgressBar_matchNumText);
+
+        int tipTextSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_tipTextSize, 17);
+        int tipTextColor = typedArray.getColor(R.styleable.CircularProgressBar_tipTextColor, ContextCompat.getColor(context, android.R.color.white));
+        String tipText = typedArray.getString(R.styleable.CircularProgressBar_tipText);
+
+        int timeTextSize = typedArray.getDimensionPixelSize(R.styleable.CircularProgressBar_timeTextSize, 15);
+        int timeTextColor = typedArray.getColor(R.styleable.CircularProgressBar_timeTextColor, ContextCompat.getColor(context, android.R.color.white));
+        String timeText = typedArray.getString(R.styleable.CircularProgressBar_timeText);
+
+        int centerColor = typedArray.getResourceId(R.styleable.CircularProgressBar_centerColor, ContextCompat.getColor(context, R.color.blue));
+        typedArray.recycle();
+
+        this.matchNumText = TextUtils.isEmpty(matchNumText) ? "0" : matchNumText;
+        this.tipText = TextUtils.isEmpty(tipText) ? "命中数量" : tipText;
+        this.timeText = TextUtils.isEmpty(timeText) ? "00:00:00" : timeText;
+
+        //中心实心圆画笔
+        centerCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        centerCirclePaint.setColor(centerColor);
+
+        //外层圆环画笔
+        backgroundArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        backgroundArcPaint.setStrokeWidth(barWidth);
+        backgroundArcPaint.setColor(barBackgroundColor);
+        backgroundArcPaint.setStyle(Paint.Style.STROKE);
+
+        //外层进度画笔
+        progressArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        progressArcPaint.setStrokeWidth(barWidth);
+        progressArcPaint.setColor(barActionColor);
+        progressArcPaint.setStyle(Paint.Style.STROKE);
+        progressArcPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        //命中数量文字画笔
+        matchNumTextPaint = newTextPaint(matchNumTextSize, matchNumTextColor);
+        //命中数量提示文字画笔
+        tipTextPaint = newTextPaint(tipTextSize, tipTextColor);
+        //计时器文本画笔
+        timeTextPaint = newTextPaint(timeTextSize, timeTextColor);
+    }
+
+    private static Paint newTextPaint(int textSize, int color) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(textSize);
+        paint.setColor(color);
+        paint.setTextAlign(Paint.Align.CENTER);
+        return paint;
+    }
+
+    int dp2px(int values) {
+        return (int) (values * density + 0.5f);
+    }
+}
@@ -0,0 +1,429 @@
+package com.maureen.customwidget;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.PorterDuff;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import androidx.core.content.ContextCompat;
+
+import com.maureen.customwidget.core.RippleModel;
+import com.maureen.customwidget.core.RippleRingBuffer;
+import com.maureen.customwidget.core.TimeFormatter;
+
+/**
+ * Function: 在独立渲染线程上绘制的波纹圆形进度条，外观与CircularProgressBar相同
+ * 渲染线程有自己的Choreographer按vsync绘制，主线程只通过原子变量传递属性，不做逐帧的工作。
+ * 使用SurfaceView而不是TextureView，Surface由系统直接合成，每帧不会在主线程触发重绘；
+ * 代价是Surface位于窗口之上，不支持View的变换和透明度，也会盖住与它重叠的兄弟View
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public class CircularProgressSurfaceView extends SurfaceView {
+    private static final String TAG = CircularProgressSurfaceView.class.getSimpleName();
+
+    private final CircularProgressStyle mStyle;
+
+    //主线程写入、渲染线程读取的属性，每次修改后请求一帧
+    /**
+     * 命中数量，CircularProgressPainter.NO_COUNT时显示样式中的matchNumText
+     */
+    private final AtomicLong mMatchCount = new AtomicLong(CircularProgressPainter.NO_COUNT);
+    /**
+     * 计时器未开始，与CircularProgressBar一样显示样式中的timeText
+     */
+    private static final long TIMER_NOT_STARTED = Long.MIN_VALUE;
+    /**
+     * 计时器状态：大于等于0时为正在计时的起点（elapsedRealtime），小于0时为暂停，已计时长为-value - 1，
+     * TIMER_NOT_STARTED表示还没有开始计时
+     */
+    private final AtomicLong mTimerState = new AtomicLong(TIMER_NOT_STARTED);
+    private final AtomicInteger mTimerFractionDigits = new AtomicInteger();
+    private final AtomicInteger mProgressBits = new AtomicInteger(Float.floatToIntBits(0f));
+    private final AtomicReference<String> mTipText = new AtomicReference<>();
+    private final AtomicInteger mCenterColor = new AtomicInteger();
+    private final AtomicInteger mBackgroundArcColor = new AtomicInteger();
+    private final AtomicInteger mWaveColor = new AtomicInteger();
+    private final AtomicInteger mWaveWidthBits = new AtomicInteger(Float.floatToIntBits(0f));
+    private volatile boolean mRipplesRunning;
+    private volatile boolean mPaused;
+
+    private HandlerThread mRenderThread;
+    /**
+     * 在主线程的Surface回调中创建和释放，属性setter可能在其他线程读取
+     */
+    private volatile Renderer mRenderer;
+
+    /**
+     * 使用私有的回调对象，调用方通过getHolder()添加的回调不影响渲染
+     */
+    private final SurfaceHolder.Callback mSurfaceCallback = new SurfaceHolder.Callback() {
+        @Override
+        public void surfaceCreated(SurfaceHolder holder) {
+            mRenderThread = new HandlerThread(TAG);
+            mRenderThread.start();
+            mRenderer = new Renderer(new Handler(mRenderThread.getLooper()));
+            Rect frame = holder.getSurfaceFrame();
+            mRenderer.attach(holder.getSurface(), frame.width(), frame.height());
+        }
+
+        @Override
+        public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+            if (mRenderer != null) {
+                mRenderer.resize(width, height);
+            }
+        }
+
+        @Override
+        public void surfaceDestroyed(SurfaceHolder holder) {
+            if (mRenderer != null) {
+                mRenderer.detach();
+                mRenderer = null;
+            }
+            if (mRenderThread != null) {
+                //等待渲染线程处理完分离消息，返回后Surface会被销毁
+                mRenderThread.quitSafely();
+                try {
+                    mRenderThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                mRenderThread = null;
+            }
+        }
+    };
+
+    public CircularProgressSurfaceView(Context context) {
+        this(context, null);
+    }
+
+    public CircularProgressSurfaceView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public CircularProgressSurfaceView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        mStyle = CircularProgressStyle.obtain(context, attrs);
+        mTipText.set(mStyle.tipText);
+        mCenterColor.set(mStyle.centerCirclePaint.getColor());
+        mBackgroundArcColor.set(mStyle.backgroundArcPaint.getColor());
+        mWaveColor.set(mStyle.waveColor);
+        //透明背景需要Surface位于窗口之上，透明的部分才能显示窗口内容
+        setZOrderOnTop(true);
+        getHolder().setFormat(PixelFormat.TRANSLUCENT);
+        getHolder().addCallback(mSurfaceCallback);
+    }
+
+    //*************************************属性*****************************************
+
+    public void start() {
+        mRipplesRunning = true;
+        requestRender();
+    }
+
+    /**
+     * 停止创建新的波纹，已有的波纹播放完后渲染线程不再请求新的帧
+     */
+    public void stop() {
+        mRipplesRunning = false;
+    }
+
+    public void setMatchCount(long count) {
+        mMatchCount.set(count);
+        requestRender();
+    }
+
+    public void setTipText(String tipText) {
+        mTipText.set(tipText);
+        requestRender();
+    }
+
+    /**
+     * 设置进度，0到1，超出范围时取边界值
+     *
+     * @throws IllegalArgumentException progress为NaN
+     */
+    public void setProgress(float progress) {
+        if (Float.isNaN(progress)) {
+            throw new IllegalArgumentException("progress is NaN");
+        }
+        mProgressBits.set(Float.floatToIntBits(Math.max(0f, Math.min(1f, progress))));
+        requestRender();
+    }
+
+    public void setCenterColor(int centerColor) {
+        mCenterColor.set(ContextCompat.getColor(getContext(), centerColor));
+        requestRender();
+    }
+
+    public void setBackgroundArcColor(int backgroundArcColor) {
+        mBackgroundArcColor.set(ContextCompat.getColor(getContext(), backgroundArcColor));
+        requestRender();
+    }
+
+    public void setWaveColor(int color) {
+        mWaveColor.set(color);
+        requestRender();
+    }
+
+    public void setWaveWidth(int width) {
+        mWaveWidthBits.set(Float.floatToIntBits(mStyle.dp2px(width)));
+        requestRender();
+    }
+
+    /**
+     * 从上次暂停的位置继续计时，还没有开始过时从当前时刻开始
+     */
+    public void startTimer() {
+        long state = mTimerState.get();
+        if (state == TIMER_NOT_STARTED) {
+            mTimerState.set(SystemClock.elapsedRealtime());
+            requestRender();
+        } else if (state < 0) {
+            mTimerState.set(SystemClock.elapsedRealtime() - (-state - 1));
+            requestRender();
+        }
+    }
+
+    /**
+     * 从指定的起点开始计时
+     *
+     * @param startElapsedRealtime 计时起点，SystemClock.elapsedRealtime()时间
+     */
+    public void startTimer(long startElapsedRealtime) {
+        mTimerState.set(Math.max(0, startElapsedRealtime));
+        requestRender();
+    }
+
+    public void pauseTimer() {
+        long state = mTimerState.get();
+        if (state >= 0) {
+            mTimerState.set(-(SystemClock.elapsedRealtime() - state) - 1);
+            requestRender();
+        }
+    }
+
+    public void resetTimer() {
+        mTimerState.set(-1);
+        requestRender();
+    }
+
+    /**
+     * 设置计时器显示的小数位数，0到2
+     */
+    public void setTimerFractionDigits(int digits) {
+        mTimerFractionDigits.set(Math.max(0, Math.min(TimeFormatter.MAX_FRACTION_DIGITS, digits)));
+        requestRender();
+    }
+
+    private void requestRender() {
+        Renderer renderer = mRenderer;
+        if (renderer != null) {
+            renderer.requestFrame();
+        }
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updatePaused();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updatePaused();
+    }
+
+    /**
+     * 控件自身、祖先或窗口不可见时暂停渲染，与CircularProgressBar.updateSuspended一致
+     */
+    private void updatePaused() {
+        boolean paused = !isShown() || getWindowVisibility() != VISIBLE;
+        if (paused == mPaused) {
+            return;
+        }
+        mPaused = paused;
+        if (!paused) {
+            requestRender();
+        }
+    }
+
+    //*************************************渲染线程*****************************************
+
+    /**
+     * 渲染线程上的绘制状态，除requestFrame外的方法和字段只在渲染线程访问
+     */
+    private final class Renderer implements Choreographer.FrameCallback {
+        private final Handler mHandler;
+        /**
+         * 是否已经向渲染线程投递了请求帧的消息，合并主线程的多次请求
+         */
+        private final AtomicBoolean mRenderRequested = new AtomicBoolean();
+        private final Runnable mScheduleFrame = new Runnable() {
+            @Override
+            public void run() {
+                mRenderRequested.set(false);
+                scheduleFrame();
+            }
+        };
+
+        private Choreographer mChoreographer;
+        private Surface mSurface;
+        private boolean mCallbackPosted;
+        /**
+         * 已投递的帧回调是否为等待计时器显示变化的延迟回调，属性变化时需要提前绘制
+         */
+        private boolean mCallbackDelayed;
+
+        /**
+         * 渲染线程独有的画笔和波纹状态，颜色由主线程传递的属性更新
+         */
+        private final CircularProgressPainter mPainter = new CircularProgressPainter(mStyle);
+        private final RippleModel mRippleModel = mPainter.getRippleModel();
+        private final RippleRingBuffer mRipples = mRippleModel.ripples();
+        private boolean mRipplesStarted;
+
+        Renderer(Handler handler) {
+            mHandler = handler;
+        }
+
+        /**
+         * 任意线程调用，请求渲染线程在下一个vsync绘制一帧
+         */
+        void requestFrame() {
+            if (mRenderRequested.compareAndSet(false, true)) {
+                mHandler.post(mScheduleFrame);
+            }
+        }
+
+        /**
+         * @param surface 由SurfaceHolder持有，渲染线程只使用不释放
+         */
+        void attach(final Surface surface, final int width, final int height) {
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    mChoreographer = Choreographer.getInstance();
+                    mSurface = surface;
+                    setSize(width, height);
+                    scheduleFrame();
+                }
+            });
+        }
+
+        void resize(final int width, final int height) {
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    setSize(width, height);
+                    scheduleFrame();
+                }
+            });
+        }
+
+        void detach() {
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mCallbackPosted) {
+                        mChoreographer.removeFrameCallback(Renderer.this);
+                        mCallbackPosted = false;
+                    }
+                    mSurface = null;
+                }
+            });
+        }
+
+        private void setSize(int width, int height) {
+            mPainter.setSize(width, height);
+        }
+
+        private void scheduleFrame() {
+            if (mCallbackPosted && mCallbackDelayed) {
+                mChoreographer.removeFrameCallback(this);
+                mCallbackPosted = false;
+            }
+            if (!mCallbackPosted && mSurface != null && !mPaused) {
+                mCallbackPosted = true;
+                mCallbackDelayed = false;
+                mChoreographer.postFrameCallback(this);
+            }
+        }
+
+        /**
+         * 只有计时器在运行时，在显示的数值变化时才绘制下一帧
+         */
+        private void scheduleFrameDelayed(long delayMillis) {
+            if (!mCallbackPosted && mSurface != null && !mPaused) {
+                mCallbackPosted = true;
+                mCallbackDelayed = true;
+                mChoreographer.postFrameCallbackDelayed(this, delayMillis);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mCallbackPosted = false;
+            if (mSurface == null || !mSurface.isValid()) {
+                return;
+            }
+            long now = frameTimeNanos / 1_000_000;
+            boolean running = mRipplesRunning;
+            if (running && !mRipplesStarted) {
+                mRippleModel.restart(now);
+            }
+            mRipplesStarted = running;
+            mRippleModel.update(now, running ? mRippleModel.getSpeed() : -1);
+            long timerState = mTimerState.get();
+            long elapsed;
+            if (timerState == TIMER_NOT_STARTED) {
+                elapsed = -1;
+            } else {
+                elapsed = timerState >= 0 ? SystemClock.elapsedRealtime() - timerState : -timerState - 1;
+            }
+            int fractionDigits = mTimerFractionDigits.get();
+
+            Canvas canvas = mSurface.lockHardwareCanvas();
+            try {
+                canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                draw(canvas, now, elapsed, fractionDigits);
+            } finally {
+                mSurface.unlockCanvasAndPost(canvas);
+            }
+
+            if (running || !mRipples.isEmpty()) {
+                scheduleFrame();
+            } else if (timerState >= 0) {
+                long unit = TimeFormatter.displayUnit(fractionDigits);
+                scheduleFrameDelayed(unit - elapsed % unit);
+            }
+        }
+
+        private void draw(Canvas canvas, long now, long elapsed, int fractionDigits) {
+            mPainter.setCenterColor(mCenterColor.get());
+            mPainter.setBackgroundArcColor(mBackgroundArcColor.get());
+            mPainter.setWaveColor(mWaveColor.get());
+            mPainter.setWaveWidth(Float.intBitsToFloat(mWaveWidthBits.get()));
+            mPainter.draw(canvas, now, mMatchCount.get(), mTipText.get(), elapsed,
+                    fractionDigits, Float.intBitsToFloat(mProgressBits.get()));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.maureen.customwidget;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.StyleRes;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Function: 以RecyclerView.ItemDecoration的方式绘制时间线，使用与TimeLineView相同的属性
+ * 只为已经attach的子View绘制节点，节点位置跟随子View的实际位置，绘制开销只与可见区域有关
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public class TimeLineItemDecoration extends RecyclerView.ItemDecoration {
+    private final int mNodeCenterRadius;
+    private final float mNodeFirstRingRadius;
+    private final float mNodeSecondRingRadius;
+    /**
+     * 节点圆心到子View左边界的距离
+     */
+    private final float mNodeCenterX;
+    /**
+     * 节点圆心到子View顶部的距离
+     */
+    private final float mNodeCenterOffsetY;
+    /**
+     * 竖线终点到圆心的距离减去子View高度，与TimeLineView的竖线终点算法一致：
+     * 终点随节点高度伸缩，节点高度等于timeNodeViewHeight时竖线长度为timelineLength
+     */
+    private final float mLineEndOffset;
+    /**
+     * 子View左侧为时间线预留的宽度
+     */
+    private final int mGutterWidth;
+
+    private final Paint mCenterCirclePaint;
+    private final Paint mFirstArcPaint;
+    private final Paint mSecondArcPaint;
+    private final Paint mLinePaint;
+
+    /**
+     * 复用的节点圆心和竖线坐标
+     */
+    private float[] mCenterX = new float[0];
+    private float[] mCenterY = new float[0];
+    private float[] mLinePoints = new float[0];
+
+    public TimeLineItemDecoration(Context context) {
+        this(context, 0);
+    }
+
+    /**
+     * @param styleRes 包含R.styleable.TimeLineView属性的样式
+     */
+    public TimeLineItemDecoration(Context context, @StyleRes int styleRes) {
+        TimeLineStyle style = TimeLineStyle.obtain(context, null, 0, styleRes);
+        mNodeCenterRadius = style.centerRadius;
+        mNodeFirstRingRadius = style.firstRingRadius;
+        mNodeSecondRingRadius = style.secondRingRadius;
+        mNodeCenterX = mNodeSecondRingRadius + TimeLineStyle.SHIFT_PX;
+        mNodeCenterOffsetY = mNodeSecondRingRadius + TimeLineStyle.SHIFT_PX;
+        mLineEndOffset = style.lineLength + mNodeSecondRingRadius - style.nodeViewHeight;
+        mGutterWidth = (int) Math.ceil(mNodeCenterX * 2);
+        mCenterCirclePaint = style.newCenterCirclePaint();
+        mFirstArcPaint = style.newFirstArcPaint();
+        mSecondArcPaint = style.newSecondArcPaint();
+        mLinePaint = style.newLinePaint();
+    }
+
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent,
+                               @NonNull RecyclerView.State state) {
+        outRect.set(mGutterWidth, 0, 0, 0);
+    }
+
+    @Override
+    public void onDraw(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        int childCount = parent.getChildCount();
+        if (layoutManager == null || childCount == 0) {
+            return;
+        }
+        if (mCenterY.length < childCount) {
+            mCenterX = new float[childCount];
+            mCenterY = new float[childCount];
+            mLinePoints = new float[childCount * 4];
+        }
+        int itemCount = state.getItemCount();
+        int nodeCount = 0;
+        int lineCount = 0;
+        for (int i = 0; i < childCount; i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION) {
+                // 正在移除的子View不画节点
+                continue;
+            }
+            float translationY = child.getTranslationY();
+            float top = layoutManager.getDecoratedTop(child) + translationY;
+            float centerX = layoutManager.getDecoratedLeft(child) + child.getTranslationX() + mNodeCenterX;
+            float centerY = top + mNodeCenterOffsetY;
+            mCenterX[nodeCount] = centerX;
+            mCenterY[nodeCount] = centerY;
+            nodeCount++;
+            if (position < itemCount - 1) {
+                // 竖线从中心圆下方开始，终点与TimeLineView相同，随子View高度伸缩
+                float height = layoutManager.getDecoratedBottom(child) - layoutManager.getDecoratedTop(child);
+                int offset = lineCount * 4;
+                mLinePoints[offset] = centerX;
+                mLinePoints[offset + 1] = centerY + mNodeCenterRadius;
+                mLinePoints[offset + 2] = centerX;
+                mLinePoints[offset + 3] = centerY + height + mLineEndOffset;
+                lineCount++;
+            }
+        }
+        if (lineCount > 0) {
+            c.drawLines(mLinePoints, 0, lineCount * 4, mLinePaint);
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            float centerX = mCenterX[i];
+            float centerY = mCenterY[i];
+            c.drawCircle(centerX, centerY, mNodeCenterRadius, mCenterCirclePaint);
+            c.drawCircle(centerX, centerY, mNodeFirstRingRadius, mFirstArcPaint);
+            c.drawCircle(centerX, centerY, mNodeSecondRingRadius, mSecondArcPaint);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.maureen.customwidget;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+
+/**
+ * Function: 时间线节点和竖线的样式，由R.styleable.TimeLineView属性解析得到
+ * TimeLineView和TimeLineItemDecoration共用，保证两种方式绘制结果一致
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+final class TimeLineStyle {
+    /**
+     * 最外层圆环到节点顶部和左侧的距离
+     */
+    static final int SHIFT_PX = 5;
+    /**
+     * 节点的中心圆半径
+     */
+    int centerRadius;
+    /**
+     * 节点的第一层圆环半径
+     */
+    float firstRingRadius;
+    /**
+     * 节点的最外层圆环半径
+     */
+    float secondRingRadius;
+    /**
+     * 圆环描边宽度
+     */
+    int ringStrokeWidth;
+    int centerColor;
+    int edgeColor;
+    int edgeColorLight;
+    int lineColor;
+    int lineWidth;
+    /**
+     * 时间节点间距离，从上一个节点最外层圆环正下方到下一个节点最外层圆环正上方
+     */
+    int nodeDistance;
+    /**
+     * 一个节点所包含内容的View的高度
+     */
+    int nodeViewHeight;
+    /**
+     * 时间轴竖线的长度
+     */
+    int lineLength;
+    /**
+     * 是否在属性中指定了竖线长度，未指定时长度由节点间距和半径推算
+     */
+    boolean lineLengthExplicit;
+    int nodeCount;
+    boolean nodeSprite;
+
+    private TimeLineStyle() {
+    }
+
+    static TimeLineStyle obtain(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        TimeLineStyle style = new TimeLineStyle();
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.TimeLineView, defStyleAttr, defStyleRes);
+        style.centerRadius = (int) a.getDimension(R.styleable.TimeLineView_timeCenterNodeRadius, convertDp2Px(context, 2));
+        style.firstRingRadius = a.getDimension(R.styleable.TimeLineView_timeNodeFistRingRadius, convertDp2Px(context, 5));
+        style.secondRingRadius = a.getDimension(R.styleable.TimeLineView_timeNodeSecondRingRadius, convertDp2Px(context, 8));
+        style.ringStrokeWidth = convertDp2Px(context, 2);
+
+        style.centerColor = a.getColor(R.styleable.TimeLineView_timeNodeColor, Color.parseColor("#0060ff"));
+        style.edgeColor = a.getColor(R.styleable.TimeLineView_timeNodeEdgeColorLight, Color.parseColor("#330060ff"));
+        style.edgeColorLight = a.getColor(R.styleable.TimeLineView_timeNodeEdgeColor, Color.parseColor("#1a0060ff"));
+        style.lineColor = a.getColor(R.styleable.TimeLineView_timeLineColor, Color.parseColor("#e1e2e5"));
+
+        style.nodeCount = a.getInteger(R.styleable.TimeLineView_timeNodeCount, 0);
+        style.lineWidth = (int) a.getDimension(R.styleable.TimeLineView_timelineWidth, convertDp2Px(context, 1));
+        style.nodeDistance = (int) a.getDimension(R.styleable.TimeLineView_timeNodeDistance, convertDp2Px(context, 100));
+        style.nodeViewHeight = (int) a.getDimension(R.styleable.TimeLineView_timeNodeViewHeight, convertDp2Px(context, 116));
+        style.nodeSprite = a.getBoolean(R.styleable.TimeLineView_timeNodeSprite, false);
+        style.lineLengthExplicit = a.hasValue(R.styleable.TimeLineView_timelineLength);
+        style.lineLength = style.lineLengthExplicit
+                ? (int) a.getDimension(R.styleable.TimeLineView_timelineLength, 0)
+                : defaultLineLength(style.nodeDistance, style.centerRadius, style.secondRingRadius);
+        a.recycle();
+        return style;
+    }
+
+    Paint newCenterCirclePaint() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(centerColor);
+        paint.setStyle(Paint.Style.FILL);
+        return paint;
+    }
+
+    Paint newFirstArcPaint() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.FILL_AND_STROKE);
+        paint.setStrokeWidth(ringStrokeWidth);
+        paint.setColor(edgeColor);
+        return paint;
+    }
+
+    Paint newSecondArcPaint() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.FILL_AND_STROKE);
+        paint.setStrokeWidth(ringStrokeWidth);
+        paint.setColor(edgeColorLight);
+        return paint;
+    }
+
+    /**
+     * 竖线画笔，竖线用drawLines批量绘制
+     */
+    Paint newLinePaint() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(lineColor);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(lineWidth);
+        paint.setStrokeCap(Paint.Cap.BUTT);
+        return paint;
+    }
+
+    /**
+     * 未指定timelineLength时的竖线长度：从中心圆下方到下一个节点最外层圆环的位置
+     */
+    static int defaultLineLength(int nodeDistance, int centerRadius, float secondRingRadius) {
+        return (int) (nodeDistance + secondRingRadius - centerRadius);
+    }
+
+    /**
+     * 节点圆环颜色。默认中心圆颜色且不高亮时使用配置的圆环颜色，
+     * 其他颜色的圆环取中心圆颜色加上配置的圆环透明度，高亮时透明度加倍
+     *
+     * @param color       节点中心圆颜色
+     * @param centerColor 配置的中心圆颜色
+     * @param ringColor   配置的圆环颜色
+     */
+    static int ringColor(int color, boolean highlighted, int centerColor, int ringColor) {
+        if (color == centerColor && !highlighted) {
+            return ringColor;
+        }
+        int alpha = Math.min(255, Color.alpha(ringColor) * (highlighted ? 2 : 1));
+        return (alpha << 24) | (color & 0x00FFFFFF);
+    }
+
+    /**
+     * 转换dp为px
+     */
+    static int convertDp2Px(Context context, int dp) {
+        float density = context.getResources().getDisplayMetrics().density;
+        return (int) (dp * density + 0.5f);
+    }
+}
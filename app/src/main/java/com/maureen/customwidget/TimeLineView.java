@@ -1,15 +1,29 @@
 package com.maureen.customwidget;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.os.Bundle;
 import android.util.AttributeSet;
+import android.util.LongSparseArray;
+import android.view.MotionEvent;
 import android.view.View;
 
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.maureen.customwidget.core.MetricsSnapshot;
+import com.maureen.customwidget.core.TimeLineLayout;
+import com.maureen.customwidget.core.TimeLineNodes;
+import com.maureen.customwidget.core.WidgetMetrics;
+
 /**
  * Function: 时间线控件
  * Create:   2020/7/31
@@ -19,6 +33,17 @@ import android.view.View;
 public class TimeLineView extends View {
     private static final String TAG = "TimeLineView";
 
+    /**
+     * 节点状态：已完成、进行中、未开始
+     */
+    public static final int NODE_STATE_DONE = 0;
+    public static final int NODE_STATE_ACTIVE = 1;
+    public static final int NODE_STATE_PENDING = 2;
+    /**
+     * 最多缓存的节点位图数，超出的节点样式直接绘制
+     */
+    private static final int MAX_NODE_SPRITES = 16;
+
     /**
      * 中心圆画笔
      */
@@ -74,6 +99,10 @@ public class TimeLineView extends View {
      * 时间轴竖线的长度
      */
     private int mLineLength;
+    /**
+     * 竖线长度是否由属性指定，未指定时随节点半径重新推算
+     */
+    private boolean mLineLengthExplicit;
     /**
      * 时间轴竖线的宽度
      */
@@ -89,8 +118,85 @@ public class TimeLineView extends View {
      */
     private int mNodeViewHeight;
 
-    private final static int SHIFT_PX = 5;
+    private final static int SHIFT_PX = TimeLineStyle.SHIFT_PX;
+
+    /**
+     * 圆环描边宽度
+     */
+    private int mRingStrokeWidth;
+
+    /**
+     * 节点纵向布局，用于只绘制可见区域内的节点
+     */
+    private final TimeLineLayout mLayout = new TimeLineLayout();
 
+    private final Rect mClipBounds = new Rect();
+
+    /**
+     * 节点圆心的x坐标，所有节点相同
+     */
+    private float mNodeCenterX;
+    /**
+     * 可见节点圆心的y坐标，绘制时按可见范围填充，只在可见节点数增加时扩容
+     */
+    private float[] mVisibleCenterY = new float[0];
+    /**
+     * 可见竖线端点，每条竖线依次为x0, y0, x1, y1，供drawLines一次绘制
+     */
+    private float[] mVisibleLinePoints = new float[0];
+
+    private OnNodeClickListener mOnNodeClickListener;
+    /**
+     * 按下时所在的节点，抬起时在同一节点上才算点击
+     */
+    private int mPressedNode = -1;
+    private final NodeAccessibilityHelper mAccessibilityHelper;
+
+    /**
+     * 每个节点的状态、颜色和高亮标记
+     */
+    private final TimeLineNodes mNodes = new TimeLineNodes();
+    /**
+     * 各状态节点中心圆的颜色，下标为节点状态
+     */
+    private final int[] mStateColors = new int[3];
+    /**
+     * 当前画笔对应的节点样式，样式不变时不重复设置画笔颜色
+     */
+    private long mAppliedNodeStyle = -1;
+
+    /**
+     * 是否把节点的三层圆预先绘制成位图，每个节点只绘制一次位图
+     */
+    private boolean mNodeSpriteEnabled;
+    /**
+     * 每种节点样式对应的节点位图，最多MAX_NODE_SPRITES种，半径或颜色变化后重新生成
+     */
+    private final LongSparseArray<Bitmap> mNodeSprites = new LongSparseArray<>();
+    /**
+     * 节点位图中心到位图左上角的距离（取整部分）
+     */
+    private int mNodeSpriteHalf;
+
+    /**
+     * 缓存的期望尺寸，节点或半径变化时更新，尺寸不变时不重新布局
+     */
+    private int mDesiredWidth;
+    private int mDesiredHeight;
+    /**
+     * 上次测量时父布局给出的MeasureSpec，用来判断期望尺寸变化后测量结果是否会变
+     */
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+
+    /**
+     * 绘制统计，为null表示未开启
+     */
+    private WidgetMetrics mMetrics;
+    /**
+     * 上一次刷新请求之后是否还没有绘制，用于统计合并的刷新请求
+     */
+    private boolean mDrawPending;
 
     public TimeLineView(Context context) {
         this(context, null);
@@ -98,12 +204,20 @@ public class TimeLineView extends View {
 
     public TimeLineView(Context context, AttributeSet attrs) {
         this(context, attrs, 0);
-        init(context, attrs);
     }
 
     public TimeLineView(Context context, AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
         init(context, attrs);
+        mAccessibilityHelper = new NodeAccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+    }
+
+    /**
+     * 节点点击回调
+     */
+    public interface OnNodeClickListener {
+        void onNodeClick(TimeLineView view, int index);
     }
 
     /**
@@ -113,72 +227,574 @@ public class TimeLineView extends View {
      * @param attrs
      */
     private void init(Context context, AttributeSet attrs) {
-        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.TimeLineView);
-        mNodeCenterRadius = (int) a.getDimension(R.styleable.TimeLineView_timeCenterNodeRadius, convertDp2Px(context, 2));
-        mNodeFirstRingRadius = a.getDimension(R.styleable.TimeLineView_timeNodeFistRingRadius, convertDp2Px(context, 5));
-        mNodeSecondRingRadius = a.getDimension(R.styleable.TimeLineView_timeNodeSecondRingRadius, convertDp2Px(context, 8));
-
-        mNodeCenterColor = a.getColor(R.styleable.TimeLineView_timeNodeColor, Color.parseColor("#0060ff"));
-        mNodeEdgeColor = a.getColor(R.styleable.TimeLineView_timeNodeEdgeColorLight, Color.parseColor("#330060ff"));
-        mNodeEdgeColorLight = a.getColor(R.styleable.TimeLineView_timeNodeEdgeColor, Color.parseColor("#1a0060ff"));
-        mLineColor = a.getColor(R.styleable.TimeLineView_timeLineColor, Color.parseColor("#e1e2e5"));
-
-        mNodeCount = a.getInteger(R.styleable.TimeLineView_timeNodeCount, 0);
-        mLineWidth = (int) a.getDimension(R.styleable.TimeLineView_timelineWidth, convertDp2Px(context, 1));
-        mNodeDistance = (int) a.getDimension(R.styleable.TimeLineView_timeNodeDistance, convertDp2Px(context, 100));
-        mNodeViewHeight = (int) a.getDimension(R.styleable.TimeLineView_timeNodeViewHeight, convertDp2Px(context, 116));
-        mLineLength = (int) a.getDimension(R.styleable.TimeLineView_timelineLength, mNodeDistance + mNodeSecondRingRadius - mNodeCenterRadius);
+        TimeLineStyle style = TimeLineStyle.obtain(context, attrs, 0, 0);
+        mNodeCenterRadius = style.centerRadius;
+        mNodeFirstRingRadius = style.firstRingRadius;
+        mNodeSecondRingRadius = style.secondRingRadius;
+
+        mNodeCenterColor = style.centerColor;
+        mNodeEdgeColor = style.edgeColor;
+        mNodeEdgeColorLight = style.edgeColorLight;
+        mLineColor = style.lineColor;
+
+        mNodeCount = style.nodeCount;
+        mLineWidth = style.lineWidth;
+        mNodeDistance = style.nodeDistance;
+        mNodeViewHeight = style.nodeViewHeight;
+        mNodeSpriteEnabled = style.nodeSprite;
+        mLineLength = style.lineLength;
+        mLineLengthExplicit = style.lineLengthExplicit;
+        mRingStrokeWidth = style.ringStrokeWidth;
 
         // 设置第一个节点的颜色
-        mCenterCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCenterCirclePaint.setColor(mNodeCenterColor);
-        mCenterCirclePaint.setStyle(Paint.Style.FILL);
+        mCenterCirclePaint = style.newCenterCirclePaint();
         // 设置第一个圆环
-        mFirstArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mFirstArcPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-        mFirstArcPaint.setStrokeWidth(convertDp2Px(context, 2));
-        mFirstArcPaint.setColor(mNodeEdgeColor);
+        mFirstArcPaint = style.newFirstArcPaint();
         // 设置第二个圆环
-        mSecondArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mSecondArcPaint.setColor(mNodeEdgeColorLight);
-        mSecondArcPaint.setStrokeWidth(convertDp2Px(context, 2));
-        mSecondArcPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        mSecondArcPaint = style.newSecondArcPaint();
         // 设置竖线画笔
-        mLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mLinePaint.setColor(mLineColor);
-        a.recycle();
+        mLinePaint = style.newLinePaint();
+
+        mStateColors[NODE_STATE_DONE] = mNodeCenterColor;
+        mStateColors[NODE_STATE_ACTIVE] = mNodeCenterColor;
+        mStateColors[NODE_STATE_PENDING] = mLineColor;
+        mNodes.append(mNodeCount, (byte) NODE_STATE_DONE);
+        mLayout.heights().append(mNodeCount, mNodeViewHeight);
+        updateLayout();
+    }
+
+    /**
+     * 设置节点数量，新增的节点为已完成状态
+     */
+    public void setNodeCount(int nodeCount) {
+        nodeCount = Math.max(0, nodeCount);
+        if (nodeCount > mNodeCount) {
+            appendNodes(nodeCount - mNodeCount, NODE_STATE_DONE);
+        } else if (nodeCount < mNodeCount) {
+            removeRange(nodeCount, mNodeCount);
+        }
+    }
+
+    public int getNodeCount() {
+        return mNodeCount;
+    }
+
+    /**
+     * 在末尾追加节点，只刷新新节点及上一个节点的竖线所在区域
+     *
+     * @param count 追加的节点数
+     * @param state 节点状态
+     */
+    public void appendNodes(int count, int state) {
+        if (count <= 0) {
+            return;
+        }
+        int from = mNodeCount;
+        mNodes.append(count, checkState(state));
+        mLayout.heights().append(count, mNodeViewHeight);
+        onNodesChanged();
+        invalidateNodes(from - 1, mNodeCount - 1);
+    }
+
+    /**
+     * 更新一个节点，中心圆按状态取色，只刷新该节点所在区域
+     *
+     * @param index       节点下标
+     * @param state       节点状态
+     * @param highlighted 是否高亮，高亮节点的圆环颜色加深
+     */
+    public void updateNode(int index, int state, boolean highlighted) {
+        mNodes.set(index, checkState(state), highlighted);
+        invalidateNodes(index, index);
+    }
+
+    /**
+     * 更新一个节点并使用自定义颜色，只刷新该节点所在区域
+     *
+     * @param index       节点下标
+     * @param state       节点状态
+     * @param color       中心圆颜色，可以是任意ARGB值
+     * @param highlighted 是否高亮，高亮节点的圆环颜色加深
+     */
+    public void updateNode(int index, int state, int color, boolean highlighted) {
+        mNodes.set(index, checkState(state), color, highlighted);
+        invalidateNodes(index, index);
+    }
+
+    public int getNodeState(int index) {
+        return mNodes.getState(index);
+    }
+
+    /**
+     * 移除[fromIndex, toIndex)范围内的节点，后面的节点前移，只刷新fromIndex之后的区域
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return;
+        }
+        mNodes.removeRange(fromIndex, toIndex);
+        mLayout.heights().removeRange(fromIndex, toIndex);
+        onNodesChanged();
+        invalidateFrom(fromIndex - 1);
+    }
+
+    /**
+     * 设置一个节点的高度，O(log n)，后面的节点随之移动
+     *
+     * @param index  节点下标
+     * @param height 节点高度，单位px
+     */
+    public void setNodeHeight(int index, int height) {
+        if (mLayout.getNodeHeight(index) == height) {
+            return;
+        }
+        mLayout.heights().set(index, height);
+        updateDesiredSize();
+        invalidateFrom(index - 1);
+    }
+
+    public int getNodeHeight(int index) {
+        return mLayout.getNodeHeight(index);
+    }
+
+    /**
+     * 节点顶部的y坐标，O(log n)
+     */
+    public int getNodeTop(int index) {
+        return mLayout.getNodeTop(index);
+    }
+
+    /**
+     * 查找y坐标所在的节点，O(log n)
+     *
+     * @return 节点下标，不在任何节点上时返回-1
+     */
+    public int getNodeAt(float y) {
+        return mLayout.getNodeAt((int) y);
+    }
+
+    public void setOnNodeClickListener(OnNodeClickListener listener) {
+        mOnNodeClickListener = listener;
+        setClickable(listener != null);
+    }
+
+    /**
+     * 设置某个状态下节点中心圆的颜色，圆环颜色由它和圆环透明度推算
+     */
+    public void setNodeStateColor(int state, int color) {
+        mStateColors[checkState(state)] = color;
+        mAppliedNodeStyle = -1;
+        releaseNodeSprite();
+        invalidateAll();
+    }
+
+    private static byte checkState(int state) {
+        if (state < NODE_STATE_DONE || state > NODE_STATE_PENDING) {
+            throw new IllegalArgumentException("Unknown node state " + state);
+        }
+        return (byte) state;
+    }
+
+    /**
+     * 设置节点颜色
+     *
+     * @param centerColor    中心圆颜色
+     * @param edgeColor      第一层圆环颜色
+     * @param edgeColorLight 最外层圆环颜色
+     */
+    public void setNodeColors(int centerColor, int edgeColor, int edgeColorLight) {
+        mNodeCenterColor = centerColor;
+        mNodeEdgeColor = edgeColor;
+        mNodeEdgeColorLight = edgeColorLight;
+        mStateColors[NODE_STATE_DONE] = centerColor;
+        mStateColors[NODE_STATE_ACTIVE] = centerColor;
+        mAppliedNodeStyle = -1;
+        releaseNodeSprite();
+        invalidateAll();
+    }
+
+    /**
+     * 设置节点半径，单位px。布局中没有指定timelineLength时，竖线长度按新的半径重新推算
+     *
+     * @param centerRadius     中心圆半径
+     * @param firstRingRadius  第一层圆环半径
+     * @param secondRingRadius 最外层圆环半径
+     */
+    public void setNodeRadius(int centerRadius, float firstRingRadius, float secondRingRadius) {
+        mNodeCenterRadius = centerRadius;
+        mNodeFirstRingRadius = firstRingRadius;
+        mNodeSecondRingRadius = secondRingRadius;
+        if (!mLineLengthExplicit) {
+            mLineLength = TimeLineStyle.defaultLineLength(mNodeDistance, centerRadius, secondRingRadius);
+        }
+        releaseNodeSprite();
+        updateLayout();
+        invalidateAll();
+    }
+
+    /**
+     * 设置是否使用预绘制的节点位图。开启后每个节点由三次抗锯齿drawCircle变为一次drawBitmap
+     */
+    public void setNodeSpriteEnabled(boolean enabled) {
+        if (mNodeSpriteEnabled == enabled) {
+            return;
+        }
+        mNodeSpriteEnabled = enabled;
+        if (!enabled) {
+            releaseNodeSprite();
+        }
+        invalidateAll();
+    }
+
+    public boolean isNodeSpriteEnabled() {
+        return mNodeSpriteEnabled;
+    }
+
+    /**
+     * 尺寸变化后更新节点绘制内容的范围
+     */
+    private void updateLayout() {
+        mNodeCenterX = mNodeSecondRingRadius + SHIFT_PX;
+        mNodeSpriteHalf = (int) Math.ceil(mNodeSecondRingRadius + mRingStrokeWidth / 2f) + 1;
+        int diameter = (int) Math.ceil(mNodeSecondRingRadius * 2);
+        // 竖线长度随节点高度伸缩，超出节点底部的距离对所有节点相同
+        mLayout.setExtents(mRingStrokeWidth,
+                SHIFT_PX + diameter + Math.max(mLineLength, mRingStrokeWidth) - mNodeViewHeight);
+        onNodesChanged();
+    }
+
+    /**
+     * 节点增删后同步节点数量，节点坐标在绘制时按可见范围计算
+     */
+    private void onNodesChanged() {
+        mNodeCount = mNodes.size();
+        updateDesiredSize();
+        if (mAccessibilityHelper != null) {
+            mAccessibilityHelper.invalidateRoot();
+        }
+    }
+
+    /**
+     * 重新计算期望尺寸，只有尺寸变化时才requestLayout，其余情况由调用方局部刷新
+     */
+    private void updateDesiredSize() {
+        int diameter = (int) Math.ceil(mNodeSecondRingRadius * 2);
+        int width = (int) Math.ceil(mNodeCenterX * 2);
+        // 最后一个节点没有竖线，只需容纳节点本身
+        int height = mLayout.getContentBottom(SHIFT_PX + diameter + mRingStrokeWidth);
+        if (width == mDesiredWidth && height == mDesiredHeight) {
+            return;
+        }
+        mDesiredWidth = width;
+        mDesiredHeight = height;
+        if (isLayoutRequested()
+                || (resolveSize(width, mLastWidthMeasureSpec) == getMeasuredWidth()
+                && resolveSize(height, mLastHeightMeasureSpec) == getMeasuredHeight())) {
+            // 已在等待测量，或按上次的MeasureSpec测量结果不变（如父布局给出EXACTLY）。
+            // ScrollView中高度为UNSPECIFIED，与布局参数无关，测量结果总会变化
+            return;
+        }
+        recordInvalidate();
+        requestLayout();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
+        setMeasuredDimension(resolveSize(mDesiredWidth, widthMeasureSpec),
+                resolveSize(mDesiredHeight, heightMeasureSpec));
+    }
+
+    /**
+     * 刷新[fromIndex, toIndex]范围内节点及其竖线所在的区域
+     */
+    private void invalidateNodes(int fromIndex, int toIndex) {
+        fromIndex = Math.max(0, fromIndex);
+        if (toIndex < fromIndex) {
+            return;
+        }
+        int diameter = (int) Math.ceil(mNodeSecondRingRadius * 2);
+        int top = mLayout.getNodeTop(fromIndex) - mRingStrokeWidth;
+        int bottom = mLayout.getNodeTop(toIndex + 1) + Math.max(0,
+                SHIFT_PX + diameter + Math.max(mLineLength, mRingStrokeWidth) - mNodeViewHeight);
+        recordInvalidate();
+        invalidate(0, top, getWidth(), bottom);
+    }
+
+    /**
+     * 刷新整个控件，用于颜色、半径等影响所有节点的变化
+     */
+    private void invalidateAll() {
+        recordInvalidate();
+        invalidate();
+    }
+
+    /**
+     * 刷新fromIndex节点及其后的所有区域，用于节点移动的情况
+     */
+    private void invalidateFrom(int fromIndex) {
+        int top = mLayout.getNodeTop(Math.max(0, fromIndex)) - mRingStrokeWidth;
+        recordInvalidate();
+        invalidate(0, top, getWidth(), getHeight());
+    }
+
+    /**
+     * 设置是否统计绘制耗时、帧数和刷新请求
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled == (mMetrics != null)) {
+            return;
+        }
+        mMetrics = enabled ? new WidgetMetrics() : null;
+        mDrawPending = false;
+    }
+
+    /**
+     * @return 当前的统计快照，未开启统计时返回null
+     */
+    public MetricsSnapshot getMetricsSnapshot() {
+        WidgetMetrics metrics = mMetrics;
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * 设置统计快照的监听器，开启统计后每隔intervalMillis在绘制后回调一次
+     */
+    public void setMetricsListener(WidgetMetrics.Listener listener, long intervalMillis) {
+        if (mMetrics == null) {
+            setMetricsEnabled(true);
+        }
+        mMetrics.setListener(listener, intervalMillis);
+    }
+
+    private void recordInvalidate() {
+        if (mMetrics != null) {
+            mMetrics.recordInvalidate(mDrawPending);
+            mDrawPending = true;
+        }
+    }
+
+    /**
+     * 节点样式：低32位为中心圆颜色，第32位为高亮标记
+     */
+    private long getNodeStyle(int index) {
+        int color = mNodes.hasCustomColor(index) ? mNodes.getColor(index) : mStateColors[mNodes.getState(index)];
+        return (color & 0xFFFFFFFFL) | (mNodes.isHighlighted(index) ? 1L << 32 : 0);
+    }
+
+    /**
+     * 按节点样式设置三支画笔的颜色。默认颜色使用配置的圆环颜色，
+     * 其他颜色的圆环取该颜色加上配置的圆环透明度，高亮时透明度加倍
+     */
+    private void applyNodeStyle(long style) {
+        if (style == mAppliedNodeStyle) {
+            return;
+        }
+        mAppliedNodeStyle = style;
+        int color = (int) style;
+        boolean highlighted = (style >>> 32) != 0;
+        mCenterCirclePaint.setColor(color);
+        mFirstArcPaint.setColor(TimeLineStyle.ringColor(color, highlighted, mNodeCenterColor, mNodeEdgeColor));
+        mSecondArcPaint.setColor(TimeLineStyle.ringColor(color, highlighted, mNodeCenterColor, mNodeEdgeColorLight));
     }
 
-    @SuppressLint("DrawAllocation")
     @Override
     protected void onDraw(Canvas canvas) {
+        if (mMetrics == null) {
+            drawTimeLine(canvas);
+            return;
+        }
+        long drawStart = System.nanoTime();
+        drawTimeLine(canvas);
+        mDrawPending = false;
+        mMetrics.recordDraw(drawStart, System.nanoTime());
+    }
+
+    private void drawTimeLine(Canvas canvas) {
+        // 只绘制与裁剪区域相交的节点，绘制开销与节点总数无关
+        if (!canvas.getClipBounds(mClipBounds)) {
+            return;
+        }
+        int first = mLayout.firstVisible(mClipBounds.top);
+        int last = mLayout.lastVisible(mClipBounds.bottom);
+        if (first > last) {
+            return;
+        }
+        int lineCount = computeVisibleGeometry(first, last);
+        // 最后一个节点不画竖线，可见的竖线一次绘制
+        if (lineCount > 0) {
+            canvas.drawLines(mVisibleLinePoints, 0, lineCount * 4, mLinePaint);
+        }
+        if (mNodeSpriteEnabled) {
+            drawNodeSprites(canvas, first, last);
+            return;
+        }
         // 默认设置时间轴的位置位于view的中间
-        for (int j = 0; j <= mNodeCount - 1; j++) {
+        for (int j = first; j <= last; j++) {
+            float centerY = mVisibleCenterY[j - first];
+            applyNodeStyle(getNodeStyle(j));
             // 画节点中心圆
-            canvas.drawCircle(mNodeSecondRingRadius + SHIFT_PX, j * mNodeViewHeight + mNodeSecondRingRadius + SHIFT_PX, mNodeCenterRadius, mCenterCirclePaint);
+            canvas.drawCircle(mNodeCenterX, centerY, mNodeCenterRadius, mCenterCirclePaint);
             // 画节点第一层圆环
-            canvas.drawCircle(mNodeSecondRingRadius + SHIFT_PX, j * mNodeViewHeight + mNodeSecondRingRadius + SHIFT_PX, mNodeFirstRingRadius, mFirstArcPaint);
+            canvas.drawCircle(mNodeCenterX, centerY, mNodeFirstRingRadius, mFirstArcPaint);
             // 画节点最外层圆环
-            canvas.drawCircle(mNodeSecondRingRadius + SHIFT_PX, j * mNodeViewHeight + mNodeSecondRingRadius + SHIFT_PX, mNodeSecondRingRadius, mSecondArcPaint);
+            canvas.drawCircle(mNodeCenterX, centerY, mNodeSecondRingRadius, mSecondArcPaint);
+        }
+    }
 
-            if (j == mNodeCount - 1) {
-                // 最后一个节点不画竖线
-                break;
+    /**
+     * 计算[first, last]范围内节点圆心和竖线的坐标，只查询一次树状数组，之后逐个累加节点高度
+     *
+     * @return 竖线数量
+     */
+    private int computeVisibleGeometry(int first, int last) {
+        int count = last - first + 1;
+        if (mVisibleCenterY.length < count) {
+            mVisibleCenterY = new float[count];
+            mVisibleLinePoints = new float[count * 4];
+        }
+        // 竖线从中心圆下方开始，到下一个节点最外层圆环的位置结束，随节点高度伸缩
+        return mLayout.computeGeometry(first, last, mNodeCenterX, mNodeSecondRingRadius + SHIFT_PX,
+                mNodeCenterRadius, mLineLength + mNodeSecondRingRadius - mNodeViewHeight,
+                mVisibleCenterY, mVisibleLinePoints);
+    }
+
+    /**
+     * 在每个可见节点的位置绘制节点位图，位图缓存已满时新的样式直接绘制
+     */
+    private void drawNodeSprites(Canvas canvas, int first, int last) {
+        // 所有节点圆心的小数部分相同，已经绘制在位图中，这里按整数像素对齐
+        float left = (float) Math.floor(mNodeCenterX) - mNodeSpriteHalf;
+        for (int j = first; j <= last; j++) {
+            long style = getNodeStyle(j);
+            Bitmap sprite = mNodeSprites.get(style);
+            if (sprite == null) {
+                if (mNodeSprites.size() >= MAX_NODE_SPRITES) {
+                    float centerY = mVisibleCenterY[j - first];
+                    applyNodeStyle(style);
+                    canvas.drawCircle(mNodeCenterX, centerY, mNodeCenterRadius, mCenterCirclePaint);
+                    canvas.drawCircle(mNodeCenterX, centerY, mNodeFirstRingRadius, mFirstArcPaint);
+                    canvas.drawCircle(mNodeCenterX, centerY, mNodeSecondRingRadius, mSecondArcPaint);
+                    continue;
+                }
+                sprite = createNodeSprite(style);
+                mNodeSprites.put(style, sprite);
             }
-            // 画竖线
-            canvas.drawRect(new Rect((int) (mNodeSecondRingRadius - mLineWidth / 2 + SHIFT_PX),
-                    (int) (j * mNodeViewHeight + mNodeSecondRingRadius + mNodeCenterRadius + SHIFT_PX),
-                    (int) (mNodeSecondRingRadius + mLineWidth / 2 + SHIFT_PX),
-                    (int) ((j * mNodeViewHeight + mNodeSecondRingRadius) + mLineLength + mNodeSecondRingRadius + SHIFT_PX)), mLinePaint);
+            canvas.drawBitmap(sprite, left, (float) Math.floor(mVisibleCenterY[j - first]) - mNodeSpriteHalf, null);
+        }
+    }
+
+    /**
+     * 把中心圆和两层圆环绘制到位图中，圆心的小数部分保留在位图里，保证和直接绘制的像素一致
+     */
+    private Bitmap createNodeSprite(long style) {
+        int size = mNodeSpriteHalf * 2 + 2;
+        Bitmap sprite = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas spriteCanvas = new Canvas(sprite);
+        applyNodeStyle(style);
+        float centerX = mNodeSpriteHalf + (float) (mNodeCenterX - Math.floor(mNodeCenterX));
+        float baseY = mNodeSecondRingRadius + SHIFT_PX;
+        float centerY = mNodeSpriteHalf + (float) (baseY - Math.floor(baseY));
+        spriteCanvas.drawCircle(centerX, centerY, mNodeCenterRadius, mCenterCirclePaint);
+        spriteCanvas.drawCircle(centerX, centerY, mNodeFirstRingRadius, mFirstArcPaint);
+        spriteCanvas.drawCircle(centerX, centerY, mNodeSecondRingRadius, mSecondArcPaint);
+        return sprite;
+    }
+
+    private void releaseNodeSprite() {
+        for (int i = 0, size = mNodeSprites.size(); i < size; i++) {
+            mNodeSprites.valueAt(i).recycle();
         }
+        mNodeSprites.clear();
     }
 
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mOnNodeClickListener == null) {
+            return super.onTouchEvent(event);
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mPressedNode = getNodeAt(event.getY());
+                return mPressedNode >= 0;
+            case MotionEvent.ACTION_UP:
+                int node = getNodeAt(event.getY());
+                if (node >= 0 && node == mPressedNode) {
+                    performClick();
+                    mOnNodeClickListener.onNodeClick(this, node);
+                }
+                mPressedNode = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                mPressedNode = -1;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
 
     /**
-     * 转换dp为px
+     * 为每个节点提供无障碍虚拟视图，触摸查找和可见范围都基于树状数组
      */
-    private int convertDp2Px(Context context, int dp) {
-        float density = context.getResources().getDisplayMetrics().density;
-        return (int) (dp * density + 0.5f);
+    private class NodeAccessibilityHelper extends ExploreByTouchHelper {
+        private final Rect mNodeBounds = new Rect();
+
+        NodeAccessibilityHelper() {
+            super(TimeLineView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int node = getNodeAt(y);
+            return node >= 0 ? node : HOST_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (!getLocalVisibleRect(mNodeBounds)) {
+                return;
+            }
+            int last = mLayout.lastVisible(mNodeBounds.bottom);
+            for (int i = mLayout.firstVisible(mNodeBounds.top); i <= last; i++) {
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            node.setContentDescription(getContext().getString(R.string.time_line_node_description, virtualViewId + 1));
+            int top = mLayout.getNodeTop(virtualViewId);
+            mNodeBounds.set(0, top, Math.max(1, getWidth()), top + Math.max(1, mLayout.getNodeHeight(virtualViewId)));
+            node.setBoundsInParent(mNodeBounds);
+            if (mOnNodeClickListener != null) {
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            }
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK && mOnNodeClickListener != null) {
+                mOnNodeClickListener.onNodeClick(TimeLineView.this, virtualViewId);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseNodeSprite();
     }
 }
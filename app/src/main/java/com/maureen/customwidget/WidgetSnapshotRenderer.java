@@ -0,0 +1,390 @@
+package com.maureen.customwidget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.StyleRes;
+
+import com.maureen.customwidget.core.RippleModel;
+import com.maureen.customwidget.core.TimeLineLayout;
+import com.maureen.customwidget.core.TimeLineNodes;
+
+/**
+ * Function: 不创建View，把CircularProgressBar和TimeLineView的外观绘制到位图中
+ * 用于通知、桌面小部件和分享图片，可以在任意线程调用，位图从BitmapPool中复用
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public class WidgetSnapshotRenderer {
+    private final Executor mExecutor;
+    private final BitmapPool mBitmapPool;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final CircularProgressStyle mProgressStyle;
+    private final TimeLineStyle mTimeLineStyle;
+
+    public interface Callback {
+        /**
+         * 在主线程回调，位图用完后调用{@link #recycle(Bitmap)}归还
+         */
+        void onSnapshot(Bitmap bitmap);
+
+        /**
+         * 绘制失败时在主线程回调，如参数不合法或内存不足
+         */
+        void onFailure(Throwable error);
+    }
+
+    public WidgetSnapshotRenderer(Context context, Executor executor, BitmapPool bitmapPool) {
+        this(context, executor, bitmapPool, 0, 0);
+    }
+
+    /**
+     * @param timeLineStyleRes 包含R.styleable.TimeLineView属性的样式
+     */
+    public WidgetSnapshotRenderer(Context context, Executor executor, BitmapPool bitmapPool,
+                                  @StyleRes int timeLineStyleRes) {
+        this(context, executor, bitmapPool, 0, timeLineStyleRes);
+    }
+
+    /**
+     * @param progressStyleRes 包含R.styleable.CircularProgressBar属性的样式，决定圆环大小、文字大小和颜色
+     * @param timeLineStyleRes 包含R.styleable.TimeLineView属性的样式
+     */
+    public WidgetSnapshotRenderer(Context context, Executor executor, BitmapPool bitmapPool,
+                                  @StyleRes int progressStyleRes, @StyleRes int timeLineStyleRes) {
+        mExecutor = executor;
+        mBitmapPool = bitmapPool;
+        mProgressStyle = CircularProgressStyle.obtain(context, null, progressStyleRes);
+        mTimeLineStyle = TimeLineStyle.obtain(context, null, 0, timeLineStyleRes);
+    }
+
+    /**
+     * 归还不再使用的位图
+     */
+    public void recycle(Bitmap bitmap) {
+        mBitmapPool.release(bitmap);
+    }
+
+    //*************************************CircularProgressBar*****************************************
+
+    /**
+     * CircularProgressBar快照的参数，提交异步绘制后不要再修改
+     */
+    public static final class ProgressParams {
+        public final int width;
+        public final int height;
+        /**
+         * 命中数量，不设置时显示样式中的文字
+         */
+        public long matchCount = CircularProgressPainter.NO_COUNT;
+        /**
+         * 提示文字，为null时显示样式中的文字
+         */
+        public String tipText;
+        /**
+         * 计时时长，小于0时显示样式中的文字
+         */
+        public long elapsedMillis = -1;
+        public int timerFractionDigits;
+        /**
+         * 进度，0到1
+         */
+        public float progress;
+        /**
+         * 中心圆颜色，为null时使用样式中的颜色
+         */
+        @ColorInt
+        public Integer centerColor;
+        /**
+         * 外层圆环颜色，为null时使用样式中的颜色
+         */
+        @ColorInt
+        public Integer backgroundArcColor;
+        /**
+         * 波纹颜色，为null时使用样式中的颜色
+         */
+        @ColorInt
+        public Integer waveColor;
+        /**
+         * 波纹线宽，单位px
+         */
+        public float waveWidth;
+        /**
+         * 绘制波纹动画开始rippleTime毫秒后的波纹，小于0时不画波纹
+         */
+        public long rippleTime = -1;
+
+        public ProgressParams(int width, int height) {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("invalid snapshot size " + width + "x" + height);
+            }
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * 在当前线程绘制CircularProgressBar快照
+     */
+    public Bitmap renderProgress(ProgressParams params) {
+        Bitmap bitmap = mBitmapPool.acquire(params.width, params.height);
+        drawProgress(new Canvas(bitmap), params);
+        return bitmap;
+    }
+
+    /**
+     * 在executor上绘制CircularProgressBar快照，完成或失败后在主线程回调
+     */
+    public void renderProgressAsync(final ProgressParams params, final Callback callback) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap;
+                try {
+                    bitmap = renderProgress(params);
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    deliverFailure(e, callback);
+                    return;
+                }
+                deliver(bitmap, callback);
+            }
+        });
+    }
+
+    /**
+     * 按位图尺寸绘制，圆环放不下时整体等比缩小，文字和线宽保持与圆环的比例
+     */
+    void drawProgress(Canvas canvas, ProgressParams params) {
+        CircularProgressPainter painter = new CircularProgressPainter(mProgressStyle);
+        float scale = progressScale(params.width, params.height);
+        painter.setSize(Math.round(params.width / scale), Math.round(params.height / scale));
+        if (params.centerColor != null) {
+            painter.setCenterColor(params.centerColor);
+        }
+        if (params.backgroundArcColor != null) {
+            painter.setBackgroundArcColor(params.backgroundArcColor);
+        }
+        painter.setWaveColor(params.waveColor != null ? params.waveColor : mProgressStyle.waveColor);
+        painter.setWaveWidth(params.waveWidth);
+        long now = params.rippleTime;
+        if (now >= 0) {
+            // 只有duration内创建的波纹还可见，从这段时间内第一个创建时刻开始按间隔生成
+            RippleModel rippleModel = painter.getRippleModel();
+            int speed = rippleModel.getSpeed();
+            long start = Math.max(0, (now - rippleModel.getDuration()) / speed * speed);
+            rippleModel.setLastCreateTime(start - speed);
+            for (long time = start; time <= now; time += speed) {
+                rippleModel.update(time, speed);
+            }
+            rippleModel.update(now, -1);
+        }
+        float progress = Float.isNaN(params.progress) ? 0f : Math.max(0f, Math.min(1f, params.progress));
+        int saveCount = canvas.save();
+        canvas.scale(scale, scale);
+        painter.draw(canvas, now, params.matchCount, params.tipText, params.elapsedMillis,
+                params.timerFractionDigits, progress);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * 圆环连同线宽在位图较短边中放不下时的缩放比例，放得下时为1
+     */
+    float progressScale(int width, int height) {
+        float ringExtent = mProgressStyle.barSize + mProgressStyle.barWidth;
+        return Math.min(1f, Math.min(width, height) / ringExtent);
+    }
+
+    //*************************************TimeLineView*****************************************
+
+    /**
+     * TimeLineView快照的参数，提交异步绘制后不要再修改
+     */
+    public static final class TimeLineParams {
+        /**
+         * 默认的位图最大高度，单位px
+         */
+        public static final int DEFAULT_MAX_HEIGHT = 4096;
+
+        public final int nodeCount;
+        /**
+         * 绘制[fromIndex, toIndex)范围内的节点，默认为全部节点
+         */
+        public int fromIndex;
+        public int toIndex;
+        /**
+         * 位图的最大高度，绘制范围超出时抛出IllegalArgumentException
+         */
+        public int maxHeight = DEFAULT_MAX_HEIGHT;
+        /**
+         * 每个节点的高度，为null时都使用样式中的节点高度
+         */
+        public int[] nodeHeights;
+        /**
+         * 每个节点的状态、颜色和高亮标记，与TimeLineView.updateNode的含义相同，为null时都是已完成状态
+         */
+        public TimeLineNodes nodes;
+        /**
+         * 位图宽度，小于等于0时使用时间线的宽度
+         */
+        public int width;
+
+        public TimeLineParams(int nodeCount) {
+            if (nodeCount <= 0) {
+                throw new IllegalArgumentException("nodeCount must be positive: " + nodeCount);
+            }
+            this.nodeCount = nodeCount;
+            this.toIndex = nodeCount;
+        }
+    }
+
+    /**
+     * 计算好的时间线快照，坐标相对于fromIndex节点的顶部
+     */
+    static final class TimeLineGeometry {
+        int width;
+        int height;
+        float centerX;
+        float[] centerY;
+        float[] linePoints;
+        int lineCount;
+    }
+
+    /**
+     * 在当前线程绘制TimeLineView快照，位图高度为绘制范围内节点的高度
+     */
+    public Bitmap renderTimeLine(TimeLineParams params) {
+        TimeLineGeometry geometry = computeTimeLineGeometry(params);
+        Bitmap bitmap = mBitmapPool.acquire(geometry.width, geometry.height);
+        drawTimeLine(new Canvas(bitmap), params, geometry);
+        return bitmap;
+    }
+
+    /**
+     * 在executor上绘制TimeLineView快照，完成或失败后在主线程回调
+     */
+    public void renderTimeLineAsync(final TimeLineParams params, final Callback callback) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap;
+                try {
+                    bitmap = renderTimeLine(params);
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    deliverFailure(e, callback);
+                    return;
+                }
+                deliver(bitmap, callback);
+            }
+        });
+    }
+
+    /**
+     * 只为绘制范围内的节点计算坐标，内存与范围大小成正比，与节点总数无关
+     */
+    TimeLineGeometry computeTimeLineGeometry(TimeLineParams params) {
+        int from = params.fromIndex;
+        int to = params.toIndex;
+        if (from < 0 || to > params.nodeCount || from >= to) {
+            throw new IllegalArgumentException("invalid node range [" + from + ", " + to + ") of "
+                    + params.nodeCount);
+        }
+        if (params.nodes != null && params.nodes.size() < params.nodeCount) {
+            throw new IllegalArgumentException("nodes size " + params.nodes.size() + " < " + params.nodeCount);
+        }
+        TimeLineStyle style = mTimeLineStyle;
+        int count = to - from;
+        // 范围后还有节点时多放一个，范围内最后一个节点的竖线才会画到它
+        int layoutCount = to < params.nodeCount ? count + 1 : count;
+        TimeLineLayout layout = new TimeLineLayout();
+        layout.heights().append(layoutCount, style.nodeViewHeight);
+        if (params.nodeHeights != null) {
+            for (int i = 0, end = Math.min(layoutCount, params.nodeHeights.length - from); i < end; i++) {
+                layout.heights().set(i, params.nodeHeights[from + i]);
+            }
+        }
+
+        // 尺寸和坐标与TimeLineView的计算方式一致
+        TimeLineGeometry geometry = new TimeLineGeometry();
+        geometry.centerX = style.secondRingRadius + TimeLineStyle.SHIFT_PX;
+        geometry.centerY = new float[count];
+        geometry.linePoints = new float[count * 4];
+        geometry.lineCount = layout.computeGeometry(0, count - 1, geometry.centerX, geometry.centerX,
+                style.centerRadius, style.lineLength + style.secondRingRadius - style.nodeViewHeight,
+                geometry.centerY, geometry.linePoints);
+        int diameter = (int) Math.ceil(style.secondRingRadius * 2);
+        int lastNodeExtent = TimeLineStyle.SHIFT_PX + diameter + style.ringStrokeWidth;
+        int height = layout.getNodeTop(count - 1) + Math.max(layout.getNodeHeight(count - 1), lastNodeExtent);
+        if (layoutCount > count && geometry.lineCount > 0) {
+            height = Math.max(height, (int) Math.ceil(geometry.linePoints[geometry.lineCount * 4 - 1]));
+        }
+        if (height > params.maxHeight) {
+            throw new IllegalArgumentException("snapshot height " + height + " exceeds maxHeight "
+                    + params.maxHeight + ", render a smaller node range");
+        }
+        geometry.width = params.width > 0 ? params.width : (int) Math.ceil(geometry.centerX * 2);
+        geometry.height = height;
+        return geometry;
+    }
+
+    void drawTimeLine(Canvas canvas, TimeLineParams params, TimeLineGeometry geometry) {
+        TimeLineStyle style = mTimeLineStyle;
+        // 画笔颜色随节点变化，每次绘制使用新的画笔，可以在多个线程中同时绘制
+        Paint centerPaint = style.newCenterCirclePaint();
+        Paint firstArcPaint = style.newFirstArcPaint();
+        Paint secondArcPaint = style.newSecondArcPaint();
+        if (geometry.lineCount > 0) {
+            canvas.drawLines(geometry.linePoints, 0, geometry.lineCount * 4, style.newLinePaint());
+        }
+        TimeLineNodes nodes = params.nodes;
+        float centerX = geometry.centerX;
+        for (int i = 0, count = params.toIndex - params.fromIndex; i < count; i++) {
+            int index = params.fromIndex + i;
+            int color = style.centerColor;
+            boolean highlighted = false;
+            if (nodes != null) {
+                color = nodes.hasCustomColor(index) ? nodes.getColor(index) : stateColor(nodes.getState(index));
+                highlighted = nodes.isHighlighted(index);
+            }
+            centerPaint.setColor(color);
+            firstArcPaint.setColor(TimeLineStyle.ringColor(color, highlighted, style.centerColor, style.edgeColor));
+            secondArcPaint.setColor(TimeLineStyle.ringColor(color, highlighted, style.centerColor, style.edgeColorLight));
+            float centerY = geometry.centerY[i];
+            canvas.drawCircle(centerX, centerY, style.centerRadius, centerPaint);
+            canvas.drawCircle(centerX, centerY, style.firstRingRadius, firstArcPaint);
+            canvas.drawCircle(centerX, centerY, style.secondRingRadius, secondArcPaint);
+        }
+    }
+
+    /**
+     * 与TimeLineView默认的状态颜色一致：未开始的节点使用竖线颜色
+     */
+    private int stateColor(int state) {
+        return state == TimeLineView.NODE_STATE_PENDING ? mTimeLineStyle.lineColor : mTimeLineStyle.centerColor;
+    }
+
+    private void deliver(final Bitmap bitmap, final Callback callback) {
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onSnapshot(bitmap);
+            }
+        });
+    }
+
+    private void deliverFailure(final Throwable error, final Callback callback) {
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onFailure(error);
+            }
+        });
+    }
+}
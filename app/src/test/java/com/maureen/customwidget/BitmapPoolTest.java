@@ -0,0 +1,81 @@
+package com.maureen.customwidget;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * BitmapPool按尺寸复用位图，总字节数不超过上限
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BitmapPoolTest {
+    private static final int BYTES_10X10 = 10 * 10 * 4;
+
+    @Test
+    public void acquire_reusesReleasedBitmapOfSameSize() {
+        BitmapPool pool = new BitmapPool(BYTES_10X10 * 4);
+        Bitmap bitmap = pool.acquire(10, 10);
+        pool.release(bitmap);
+        assertEquals(BYTES_10X10, pool.getPooledBytes());
+
+        assertSame(bitmap, pool.acquire(10, 10));
+        assertEquals(0, pool.getPooledBytes());
+        assertNotSame(bitmap, pool.acquire(10, 10));
+    }
+
+    @Test
+    public void acquire_differentSizeCreatesNewBitmap() {
+        BitmapPool pool = new BitmapPool(BYTES_10X10 * 4);
+        Bitmap bitmap = pool.acquire(10, 10);
+        pool.release(bitmap);
+
+        Bitmap other = pool.acquire(10, 20);
+        assertNotSame(bitmap, other);
+        assertEquals(10, other.getWidth());
+        assertEquals(20, other.getHeight());
+        assertEquals(BYTES_10X10, pool.getPooledBytes());
+    }
+
+    @Test
+    public void release_evictsLeastRecentlyUsedSize() {
+        BitmapPool pool = new BitmapPool(BYTES_10X10 * 2);
+        Bitmap first = pool.acquire(10, 10);
+        Bitmap second = pool.acquire(5, 20);
+        Bitmap third = pool.acquire(20, 5);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(BYTES_10X10 * 2, pool.getPooledBytes());
+        assertTrue(first.isRecycled());
+        assertFalse(second.isRecycled());
+        assertFalse(third.isRecycled());
+    }
+
+    @Test
+    public void release_recyclesBitmapLargerThanPool() {
+        BitmapPool pool = new BitmapPool(BYTES_10X10);
+        Bitmap bitmap = pool.acquire(20, 20);
+        pool.release(bitmap);
+
+        assertTrue(bitmap.isRecycled());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void clear_recyclesAllPooledBitmaps() {
+        BitmapPool pool = new BitmapPool(BYTES_10X10 * 4);
+        Bitmap bitmap = pool.acquire(10, 10);
+        pool.release(bitmap);
+        pool.clear();
+
+        assertTrue(bitmap.isRecycled());
+        assertEquals(0, pool.getPooledBytes());
+    }
+}
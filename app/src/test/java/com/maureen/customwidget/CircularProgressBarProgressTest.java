@@ -0,0 +1,89 @@
+package com.maureen.customwidget;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import com.maureen.customwidget.core.MetricsSnapshot;
+
+import static org.junit.Assert.*;
+
+/**
+ * 进度设置测试：合并同一帧内的多次设置、超出范围取边界值、动画结束时停在目标进度
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CircularProgressBarProgressTest {
+
+    private static CircularProgressBar attachProgressBar() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        CircularProgressBar bar = new CircularProgressBar(controller.get());
+        controller.get().setContentView(bar, new ViewGroup.LayoutParams(600, 600));
+        controller.windowFocusChanged(true);
+        ShadowLooper.idleMainLooper();
+        return bar;
+    }
+
+    private static void advanceFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void setProgress_sameFrame_keepsLatestAndCoalesces() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.setMetricsEnabled(true);
+        bar.setProgress(0.2f);
+        bar.setProgress(0.4f);
+        bar.setProgress(0.6f);
+        assertEquals(0f, bar.getProgress(), 0f);
+
+        advanceFrames(1);
+        assertEquals(0.6f, bar.getProgress(), 1e-6f);
+        MetricsSnapshot snapshot = bar.getMetricsSnapshot();
+        assertEquals(2, snapshot.invalidationsCoalesced);
+    }
+
+    @Test
+    public void setProgress_outOfRange_clamps() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.setProgress(1.5f);
+        advanceFrames(1);
+        assertEquals(1f, bar.getProgress(), 0f);
+
+        bar.setProgress(-0.5f);
+        advanceFrames(1);
+        assertEquals(0f, bar.getProgress(), 0f);
+
+        bar.setProgress(Float.POSITIVE_INFINITY);
+        advanceFrames(1);
+        assertEquals(1f, bar.getProgress(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setProgress_nan_throws() {
+        attachProgressBar().setProgress(Float.NaN);
+    }
+
+    @Test
+    public void setProgressAnimated_endsAtTarget() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.setProgressAnimated(0.8f, 300);
+        advanceFrames(5);
+        float midway = bar.getProgress();
+        assertTrue("midway " + midway, midway > 0f && midway < 0.8f);
+
+        advanceFrames(30);
+        assertEquals(0.8f, bar.getProgress(), 1e-6f);
+    }
+}
@@ -0,0 +1,79 @@
+package com.maureen.customwidget;
+
+import android.app.Activity;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 状态保存恢复测试：运行中的计时器计入保存到恢复之间的时间，暂停的计时器保持已计时长
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CircularProgressBarStateTest {
+
+    private static CircularProgressBar attachProgressBar() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        CircularProgressBar bar = new CircularProgressBar(controller.get());
+        controller.get().setContentView(bar, new ViewGroup.LayoutParams(600, 600));
+        ShadowLooper.idleMainLooper();
+        return bar;
+    }
+
+    /**
+     * 经过Parcel序列化，模拟进程被杀后恢复
+     */
+    private static Parcelable parcel(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return CircularProgressBar.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void runningTimer_countsTimeBetweenSaveAndRestore() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.startTimer(SystemClock.elapsedRealtime() - 1_000);
+        Parcelable state = parcel(bar.onSaveInstanceState());
+
+        ShadowLooper.idleMainLooper(700, TimeUnit.MILLISECONDS);
+        CircularProgressBar restored = attachProgressBar();
+        restored.onRestoreInstanceState(state);
+
+        assertTrue(restored.isTimerRunning());
+        assertTrue("elapsed " + restored.getTimerElapsed(), restored.getTimerElapsed() >= 1_700);
+    }
+
+    @Test
+    public void pausedTimer_keepsElapsed() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.startTimer(SystemClock.elapsedRealtime() - 1_000);
+        bar.pauseTimer();
+        long elapsed = bar.getTimerElapsed();
+        Parcelable state = parcel(bar.onSaveInstanceState());
+
+        ShadowLooper.idleMainLooper(700, TimeUnit.MILLISECONDS);
+        CircularProgressBar restored = attachProgressBar();
+        restored.onRestoreInstanceState(state);
+
+        assertFalse(restored.isTimerRunning());
+        assertEquals(elapsed, restored.getTimerElapsed());
+    }
+}
@@ -0,0 +1,46 @@
+package com.maureen.customwidget;
+
+import android.app.Activity;
+import android.util.AttributeSet;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 样式缓存测试：布局中直接写的属性相同时共用一个实例，如activity_main.xml和列表项布局
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CircularProgressStyleTest {
+
+    private static AttributeSet inlineAttrs(String barSize) {
+        return Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.barSize, barSize)
+                .addAttribute(R.attr.barWidth, "5dp")
+                .addAttribute(R.attr.timeTextColor, "#ffffff")
+                .build();
+    }
+
+    @Test
+    public void obtain_sameInlineAttributes_sharesStyle() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        CircularProgressStyle first = CircularProgressStyle.obtain(activity, inlineAttrs("175dp"));
+        CircularProgressStyle second = CircularProgressStyle.obtain(activity, inlineAttrs("175dp"));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void obtain_differentInlineValue_createsNewStyle() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        CircularProgressStyle large = CircularProgressStyle.obtain(activity, inlineAttrs("175dp"));
+        CircularProgressStyle small = CircularProgressStyle.obtain(activity, inlineAttrs("80dp"));
+        assertNotSame(large, small);
+        assertTrue(large.barSize > small.barSize);
+        assertNotSame(large, CircularProgressStyle.obtain(activity, null));
+    }
+}
@@ -0,0 +1,207 @@
+package com.maureen.customwidget;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 绘制开销回归测试：用RecordingCanvas统计每帧各类绘制操作的次数和分配的内存，
+ * 超过draw-budgets.properties中的上限时失败
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DrawBudgetTest {
+    private static final int VIEWPORT_HEIGHT = 900;
+    private static final int MEASURED_FRAMES = 100;
+
+    private static final Properties sBudgets = new Properties();
+
+    @BeforeClass
+    public static void loadBudgets() throws IOException {
+        try (InputStream in = DrawBudgetTest.class.getClassLoader().getResourceAsStream("draw-budgets.properties")) {
+            sBudgets.load(in);
+        }
+    }
+
+    private static int budget(String key) {
+        return Integer.parseInt(sBudgets.getProperty(key));
+    }
+
+    //*************************************CircularProgressBar*****************************************
+
+    private static CircularProgressBar attachProgressBar() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        CircularProgressBar bar = new CircularProgressBar(controller.get());
+        controller.get().setContentView(bar, new ViewGroup.LayoutParams(600, 600));
+        controller.windowFocusChanged(true);
+        ShadowLooper.idleMainLooper();
+        return bar;
+    }
+
+    private static void advanceFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void circularProgressBar_idleFrame_staysWithinOps() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.setProgress(0.5f);
+        ShadowLooper.idleMainLooper();
+        RecordingCanvas canvas = new RecordingCanvas(bar.getWidth(), bar.getHeight());
+        // 第一帧生成静态层缓存
+        bar.onDraw(canvas);
+        canvas.reset();
+        bar.onDraw(canvas);
+        assertTrue("ops " + canvas.total(), canvas.total() <= budget("circular.idle.ops"));
+        assertEquals(0, canvas.count(RecordingCanvas.Op.CIRCLE));
+    }
+
+    @Test
+    public void circularProgressBar_rippleFrame_staysWithinOps() {
+        CircularProgressBar bar = attachProgressBar();
+        bar.start();
+        advanceFrames(200);
+        RecordingCanvas canvas = new RecordingCanvas(bar.getWidth(), bar.getHeight());
+        bar.onDraw(canvas);
+        for (int i = 0; i < 50; i++) {
+            advanceFrames(1);
+            canvas.reset();
+            bar.onDraw(canvas);
+            int circles = canvas.count(RecordingCanvas.Op.CIRCLE);
+            assertTrue("no ripples drawn", circles > 0);
+            assertTrue("circles " + circles, circles <= budget("circular.ripple.circles"));
+            assertTrue("ops " + canvas.total(), canvas.total() <= budget("circular.ripple.ops"));
+        }
+    }
+
+    @Test
+    public void circularProgressBar_rippleFrame_allocatesWithinBudget() {
+        com.sun.management.ThreadMXBean threadBean = allocationCounter();
+        CircularProgressBar bar = attachProgressBar();
+        bar.setTimerFractionDigits(1);
+        bar.startTimer();
+        bar.start();
+        RecordingCanvas canvas = new RecordingCanvas(bar.getWidth(), bar.getHeight());
+        // 预热，避免把类加载、JIT编译和静态层缓存的分配计算进去
+        for (int i = 0; i < 300; i++) {
+            advanceFrames(1);
+            bar.onDraw(canvas);
+        }
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            advanceFrames(1);
+            long before = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            bar.onDraw(canvas);
+            allocated += threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        }
+        assertTrue("allocated " + allocated + " bytes in " + MEASURED_FRAMES + " frames",
+                allocated <= (long) budget("circular.frame.allocatedBytes") * MEASURED_FRAMES);
+    }
+
+    //*************************************TimeLineView*****************************************
+
+    private static TimeLineView timeLine(int nodeCount, boolean sprite) {
+        TimeLineView view = new TimeLineView(Robolectric.buildActivity(Activity.class).setup().get());
+        view.setNodeCount(nodeCount);
+        view.setNodeSpriteEnabled(sprite);
+        view.measure(0, 0);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        return view;
+    }
+
+    private static RecordingCanvas drawViewport(TimeLineView view, int top) {
+        RecordingCanvas canvas = new RecordingCanvas(view.getWidth(), view.getHeight());
+        canvas.setClip(0, top, view.getWidth(), top + VIEWPORT_HEIGHT);
+        view.onDraw(canvas);
+        return canvas;
+    }
+
+    @Test
+    public void timeLineView_visibleNodes_boundOps() {
+        int visibleNodes = budget("timeline.visibleNodes");
+        for (int nodeCount : new int[]{1_000, 100_000}) {
+            RecordingCanvas canvas = drawViewport(timeLine(nodeCount, false), 50_000);
+            assertTrue(canvas.count(RecordingCanvas.Op.CIRCLE)
+                    <= budget("timeline.circlesPerVisibleNode") * visibleNodes);
+            assertEquals(budget("timeline.lines"), canvas.count(RecordingCanvas.Op.LINES));
+            assertEquals(0, canvas.count(RecordingCanvas.Op.LINE));
+        }
+    }
+
+    @Test
+    public void timeLineView_opsIndependentOfNodeCount() {
+        RecordingCanvas small = drawViewport(timeLine(1_000, false), 50_000);
+        RecordingCanvas large = drawViewport(timeLine(100_000, false), 50_000);
+        assertEquals(small.total(), large.total());
+    }
+
+    @Test
+    public void timeLineView_spriteMode_oneBitmapPerNode() {
+        TimeLineView view = timeLine(100_000, true);
+        RecordingCanvas canvas = drawViewport(view, 50_000);
+        assertEquals(0, canvas.count(RecordingCanvas.Op.CIRCLE));
+        assertTrue(canvas.count(RecordingCanvas.Op.BITMAP)
+                <= budget("timeline.sprite.bitmapsPerVisibleNode") * budget("timeline.visibleNodes"));
+    }
+
+    @Test
+    public void timeLineView_spriteMode_replacesCirclesWithOneBitmap() {
+        RecordingCanvas direct = drawViewport(timeLine(100_000, false), 50_000);
+        RecordingCanvas sprite = drawViewport(timeLine(100_000, true), 50_000);
+        int nodes = sprite.count(RecordingCanvas.Op.BITMAP);
+        assertTrue("no nodes drawn", nodes > 0);
+        // 同一可见区域内，每个节点的三次drawCircle换成一次drawBitmap
+        assertEquals(budget("timeline.circlesPerVisibleNode") * nodes, direct.count(RecordingCanvas.Op.CIRCLE));
+        assertEquals(direct.total() - (budget("timeline.circlesPerVisibleNode") - 1) * nodes, sprite.total());
+    }
+
+    @Test
+    public void timeLineView_scrollFrame_allocatesWithinBudget() {
+        com.sun.management.ThreadMXBean threadBean = allocationCounter();
+        TimeLineView view = timeLine(100_000, false);
+        RecordingCanvas canvas = new RecordingCanvas(view.getWidth(), view.getHeight());
+        for (int i = 0; i < 300; i++) {
+            canvas.setClip(0, i * 37, view.getWidth(), i * 37 + VIEWPORT_HEIGHT);
+            view.onDraw(canvas);
+        }
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            int top = 20_000 + i * 37;
+            canvas.setClip(0, top, view.getWidth(), top + VIEWPORT_HEIGHT);
+            long before = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            view.onDraw(canvas);
+            allocated += threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        }
+        assertTrue("allocated " + allocated + " bytes in " + MEASURED_FRAMES + " frames",
+                allocated <= (long) budget("timeline.frame.allocatedBytes") * MEASURED_FRAMES);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        // 第一次调用本身可能产生分配
+        threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        return threadBean;
+    }
+}
@@ -0,0 +1,176 @@
+package com.maureen.customwidget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * 只记录绘制操作次数的Canvas，不做实际绘制。计数保存在int数组中，记录过程不产生分配
+ */
+class RecordingCanvas extends Canvas {
+
+    enum Op {
+        CIRCLE, ARC, LINE, LINES, TEXT, BITMAP, RECT, OVAL, ROUND_RECT, PATH, POINT, COLOR
+    }
+
+    private final int[] mCounts = new int[Op.values().length];
+    private final Rect mClip;
+
+    RecordingCanvas(int width, int height) {
+        mClip = new Rect(0, 0, width, height);
+    }
+
+    /**
+     * 设置可见区域，用于模拟滚动后的裁剪范围
+     */
+    void setClip(int left, int top, int right, int bottom) {
+        mClip.set(left, top, right, bottom);
+    }
+
+    int count(Op op) {
+        return mCounts[op.ordinal()];
+    }
+
+    int total() {
+        int total = 0;
+        for (int count : mCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    void reset() {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] = 0;
+        }
+    }
+
+    private void record(Op op) {
+        mCounts[op.ordinal()]++;
+    }
+
+    @Override
+    public boolean getClipBounds(Rect bounds) {
+        bounds.set(mClip);
+        return !mClip.isEmpty();
+    }
+
+    @Override
+    public int getWidth() {
+        return mClip.right;
+    }
+
+    @Override
+    public int getHeight() {
+        return mClip.bottom;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        record(Op.CIRCLE);
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        record(Op.ARC);
+    }
+
+    @Override
+    public void drawArc(float left, float top, float right, float bottom, float startAngle, float sweepAngle,
+                        boolean useCenter, Paint paint) {
+        record(Op.ARC);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        record(Op.LINE);
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        record(Op.LINES);
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        record(Op.LINES);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+        record(Op.TEXT);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        record(Op.BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        record(Op.BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        record(Op.BITMAP);
+    }
+
+    @Override
+    public void drawRect(Rect r, Paint paint) {
+        record(Op.RECT);
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        record(Op.RECT);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        record(Op.RECT);
+    }
+
+    @Override
+    public void drawOval(RectF oval, Paint paint) {
+        record(Op.OVAL);
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        record(Op.ROUND_RECT);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        record(Op.PATH);
+    }
+
+    @Override
+    public void drawPoint(float x, float y, Paint paint) {
+        record(Op.POINT);
+    }
+
+    @Override
+    public void drawColor(int color) {
+        record(Op.COLOR);
+    }
+}
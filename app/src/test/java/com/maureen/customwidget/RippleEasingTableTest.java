@@ -0,0 +1,55 @@
+package com.maureen.customwidget;
+
+import android.view.animation.Interpolator;
+
+import androidx.interpolator.view.animation.FastOutSlowInInterpolator;
+import androidx.interpolator.view.animation.LinearOutSlowInInterpolator;
+
+import org.junit.Test;
+
+import com.maureen.customwidget.core.Easing;
+import com.maureen.customwidget.core.RippleModel;
+
+import static org.junit.Assert.*;
+
+/**
+ * 波纹插值查找表精度测试：与CircularProgressBar相同，把实际使用的插值器包装成Easing交给RippleModel，
+ * 对比开启和关闭查找表时的结果
+ */
+public class RippleEasingTableTest {
+    private static final int SAMPLES = 10_000;
+
+    private static Easing wrap(final Interpolator interpolator) {
+        return new Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return interpolator.getInterpolation(input);
+            }
+        };
+    }
+
+    @Test
+    public void linearOutSlowIn_withinTolerance() {
+        // 插值器本身是201项查找表，重新采样后误差约3.2e-4，255级透明度下约0.1级
+        assertMaxError(new LinearOutSlowInInterpolator(), 4e-4f);
+    }
+
+    @Test
+    public void fastOutSlowIn_withinTolerance() {
+        assertMaxError(new FastOutSlowInInterpolator(), 1e-4f);
+    }
+
+    private static void assertMaxError(Interpolator interpolator, float tolerance) {
+        RippleModel direct = new RippleModel(2000, 500);
+        direct.setEasing(wrap(interpolator));
+        RippleModel table = new RippleModel(2000, 500);
+        table.setEasing(wrap(interpolator));
+        table.setTableEnabled(true);
+        float maxError = 0f;
+        for (int i = 0; i <= SAMPLES; i++) {
+            float input = i / (float) SAMPLES;
+            maxError = Math.max(maxError, Math.abs(table.ease(input) - direct.ease(input)));
+        }
+        assertTrue("max error " + maxError, maxError <= tolerance);
+    }
+}
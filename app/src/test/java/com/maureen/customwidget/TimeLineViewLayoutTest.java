@@ -0,0 +1,56 @@
+package com.maureen.customwidget;
+
+import android.app.Activity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ScrollView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * 期望尺寸变化时的重新布局：ScrollView中即使是MATCH_PARENT也要随节点增加变高，固定尺寸时不重新布局
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class TimeLineViewLayoutTest {
+
+    @Test
+    public void appendNodes_inScrollView_growsMatchParentView() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ScrollView scrollView = new ScrollView(activity);
+        TimeLineView view = new TimeLineView(activity);
+        view.setNodeCount(3);
+        scrollView.addView(view, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        activity.setContentView(scrollView, new ViewGroup.LayoutParams(600, 600));
+        ShadowLooper.idleMainLooper();
+        int height = view.getHeight();
+
+        view.appendNodes(20, TimeLineView.NODE_STATE_PENDING);
+        assertTrue(view.isLayoutRequested());
+        ShadowLooper.idleMainLooper();
+        assertTrue("height " + view.getHeight(), view.getHeight() > height);
+    }
+
+    @Test
+    public void appendNodes_exactSize_skipsLayout() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        FrameLayout parent = new FrameLayout(activity);
+        TimeLineView view = new TimeLineView(activity);
+        view.setNodeCount(3);
+        parent.addView(view, new ViewGroup.LayoutParams(200, 200));
+        activity.setContentView(parent);
+        ShadowLooper.idleMainLooper();
+
+        view.appendNodes(20, TimeLineView.NODE_STATE_PENDING);
+        assertFalse(view.isLayoutRequested());
+        assertEquals(200, view.getHeight());
+    }
+}
@@ -0,0 +1,198 @@
+package com.maureen.customwidget;
+
+import android.graphics.Bitmap;
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.maureen.customwidget.core.RippleRingBuffer;
+import com.maureen.customwidget.core.TimeLineNodes;
+
+import static org.junit.Assert.*;
+
+/**
+ * 快照渲染测试：用RecordingCanvas检查两种快照的绘制操作，检查位图尺寸和异步回调所在线程
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class WidgetSnapshotRendererTest {
+    private ExecutorService mExecutor;
+    private BitmapPool mPool;
+    private WidgetSnapshotRenderer mRenderer;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newSingleThreadExecutor();
+        mPool = new BitmapPool(4 * 1024 * 1024);
+        mRenderer = new WidgetSnapshotRenderer(RuntimeEnvironment.application, mExecutor, mPool);
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    //*************************************CircularProgressBar*****************************************
+
+    @Test
+    public void drawProgress_drawsRingArcAndTexts() {
+        WidgetSnapshotRenderer.ProgressParams params = new WidgetSnapshotRenderer.ProgressParams(600, 600);
+        params.progress = 0.5f;
+        params.matchCount = 12;
+        params.elapsedMillis = 61_000;
+        RecordingCanvas canvas = new RecordingCanvas(600, 600);
+        mRenderer.drawProgress(canvas, params);
+
+        assertEquals(2, canvas.count(RecordingCanvas.Op.CIRCLE));
+        assertEquals(1, canvas.count(RecordingCanvas.Op.ARC));
+        assertEquals(3, canvas.count(RecordingCanvas.Op.TEXT));
+    }
+
+    @Test
+    public void drawProgress_nanProgressDrawsNoArc() {
+        WidgetSnapshotRenderer.ProgressParams params = new WidgetSnapshotRenderer.ProgressParams(600, 600);
+        params.progress = Float.NaN;
+        RecordingCanvas canvas = new RecordingCanvas(600, 600);
+        mRenderer.drawProgress(canvas, params);
+
+        assertEquals(0, canvas.count(RecordingCanvas.Op.ARC));
+    }
+
+    @Test
+    public void drawProgress_largeRippleTimeDrawsOnlyLiveRipples() {
+        WidgetSnapshotRenderer.ProgressParams params = new WidgetSnapshotRenderer.ProgressParams(600, 600);
+        // 接近开机时长的时间戳，逐个生成历史波纹会非常慢
+        params.rippleTime = 3_600_000_000L;
+        RecordingCanvas canvas = new RecordingCanvas(600, 600);
+        long start = System.nanoTime();
+        mRenderer.drawProgress(canvas, params);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        int ripples = canvas.count(RecordingCanvas.Op.CIRCLE) - 2;
+        assertTrue("ripples " + ripples, ripples > 0);
+        assertTrue("ripples " + ripples, ripples <= RippleRingBuffer.capacityFor(2000, 500));
+    }
+
+    @Test
+    public void drawProgress_smallBitmapScalesRingToFit() {
+        assertEquals(1f, mRenderer.progressScale(600, 300), 0f);
+        float scale = mRenderer.progressScale(40, 300);
+        assertTrue("scale " + scale, scale < 1f);
+        CircularProgressStyle style = CircularProgressStyle.obtain(RuntimeEnvironment.application, null);
+        assertEquals(40f, (style.barSize + style.barWidth) * scale, 1e-3f);
+    }
+
+    @Test
+    public void renderProgress_returnsBitmapOfRequestedSize() {
+        Bitmap bitmap = mRenderer.renderProgress(new WidgetSnapshotRenderer.ProgressParams(300, 200));
+        assertEquals(300, bitmap.getWidth());
+        assertEquals(200, bitmap.getHeight());
+        mRenderer.recycle(bitmap);
+        assertSame(bitmap, mPool.acquire(300, 200));
+    }
+
+    //*************************************TimeLineView*****************************************
+
+    @Test
+    public void drawTimeLine_rangeDrawsOnlyRangeNodes() {
+        WidgetSnapshotRenderer.TimeLineParams params = new WidgetSnapshotRenderer.TimeLineParams(100_000);
+        params.fromIndex = 50_000;
+        params.toIndex = 50_010;
+        WidgetSnapshotRenderer.TimeLineGeometry geometry = mRenderer.computeTimeLineGeometry(params);
+        RecordingCanvas canvas = new RecordingCanvas(geometry.width, geometry.height);
+        mRenderer.drawTimeLine(canvas, params, geometry);
+
+        assertEquals(10, geometry.centerY.length);
+        // 范围后还有节点，最后一个节点也有竖线
+        assertEquals(10, geometry.lineCount);
+        assertEquals(1, canvas.count(RecordingCanvas.Op.LINES));
+        assertEquals(30, canvas.count(RecordingCanvas.Op.CIRCLE));
+        assertTrue(geometry.height <= params.maxHeight);
+    }
+
+    @Test
+    public void renderTimeLine_lastNodeHasNoLine() {
+        WidgetSnapshotRenderer.TimeLineParams params = new WidgetSnapshotRenderer.TimeLineParams(3);
+        params.nodes = new TimeLineNodes();
+        params.nodes.append(3, (byte) TimeLineView.NODE_STATE_DONE);
+        params.nodes.set(1, (byte) TimeLineView.NODE_STATE_ACTIVE, 0x00000000, true);
+        WidgetSnapshotRenderer.TimeLineGeometry geometry = mRenderer.computeTimeLineGeometry(params);
+        assertEquals(2, geometry.lineCount);
+
+        Bitmap bitmap = mRenderer.renderTimeLine(params);
+        assertEquals(geometry.width, bitmap.getWidth());
+        assertEquals(geometry.height, bitmap.getHeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void renderTimeLine_heightAboveMaxThrows() {
+        mRenderer.renderTimeLine(new WidgetSnapshotRenderer.TimeLineParams(100_000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void renderTimeLine_invalidRangeThrows() {
+        WidgetSnapshotRenderer.TimeLineParams params = new WidgetSnapshotRenderer.TimeLineParams(10);
+        params.fromIndex = 5;
+        params.toIndex = 11;
+        mRenderer.renderTimeLine(params);
+    }
+
+    //*************************************异步*****************************************
+
+    private static class RecordingCallback implements WidgetSnapshotRenderer.Callback {
+        Bitmap bitmap;
+        Throwable error;
+        boolean onMainLooper;
+
+        @Override
+        public void onSnapshot(Bitmap bitmap) {
+            this.bitmap = bitmap;
+            onMainLooper = Looper.myLooper() == Looper.getMainLooper();
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            this.error = error;
+            onMainLooper = Looper.myLooper() == Looper.getMainLooper();
+        }
+    }
+
+    private void awaitExecutor() throws InterruptedException {
+        mExecutor.shutdown();
+        assertTrue(mExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        ShadowLooper.idleMainLooper();
+    }
+
+    @Test
+    public void renderProgressAsync_deliversOnMainLooper() throws InterruptedException {
+        RecordingCallback callback = new RecordingCallback();
+        mRenderer.renderProgressAsync(new WidgetSnapshotRenderer.ProgressParams(100, 100), callback);
+        awaitExecutor();
+
+        assertNotNull(callback.bitmap);
+        assertNull(callback.error);
+        assertTrue(callback.onMainLooper);
+    }
+
+    @Test
+    public void renderTimeLineAsync_deliversFailureOnMainLooper() throws InterruptedException {
+        RecordingCallback callback = new RecordingCallback();
+        mRenderer.renderTimeLineAsync(new WidgetSnapshotRenderer.TimeLineParams(100_000), callback);
+        awaitExecutor();
+
+        assertNull(callback.bitmap);
+        assertTrue(callback.error instanceof IllegalArgumentException);
+        assertTrue(callback.onMainLooper);
+    }
+}
@@ -0,0 +1,60 @@
+package com.maureen.customwidget.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每帧的波纹更新：过期、创建以及所有存活波纹的半径和透明度计算
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RippleBenchmark {
+    private static final long FRAME_MILLIS = 16;
+
+    @Param({"false", "true"})
+    public boolean table;
+
+    private RippleModel mModel;
+    private long mNow;
+
+    @Setup
+    public void setUp() {
+        mModel = new RippleModel(2000, 500);
+        mModel.setInitialRadius(150);
+        mModel.setMaxRadius(400);
+        // 与LinearOutSlowInInterpolator开销相近的缓动函数
+        mModel.setEasing(new Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return (float) (1 - Math.pow(1 - input, 3));
+            }
+        });
+        mModel.setTableEnabled(table);
+        mModel.restart(0);
+        // 先跑满一个周期，使存活的波纹数稳定
+        for (mNow = 0; mNow < 2000; mNow += FRAME_MILLIS) {
+            mModel.update(mNow, 500);
+        }
+    }
+
+    @Benchmark
+    public void frame(Blackhole blackhole) {
+        mNow += FRAME_MILLIS;
+        mModel.update(mNow, 500);
+        RippleRingBuffer ripples = mModel.ripples();
+        for (int i = 0, size = ripples.size(); i < size; i++) {
+            blackhole.consume(mModel.sample(mNow - ripples.get(i)));
+            blackhole.consume(mModel.getSampledAlpha());
+        }
+    }
+}
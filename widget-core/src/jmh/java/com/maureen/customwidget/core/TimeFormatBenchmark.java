@@ -0,0 +1,38 @@
+package com.maureen.customwidget.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 计时器和命中数量文本格式化，写入复用的char数组
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeFormatBenchmark {
+    @Param({"0", "2"})
+    public int fractionDigits;
+
+    private final char[] mTimeChars = new char[TimeFormatter.BUFFER_SIZE];
+    private final char[] mCountChars = new char[CountFormatter.BUFFER_SIZE];
+    private long mElapsed = 3_599_000L;
+    private long mCount = 123_456L;
+
+    @Benchmark
+    public int formatTime() {
+        mElapsed += 17;
+        return TimeFormatter.format(mElapsed, fractionDigits, mTimeChars);
+    }
+
+    @Benchmark
+    public int formatCount() {
+        return CountFormatter.format(++mCount, mCountChars);
+    }
+}
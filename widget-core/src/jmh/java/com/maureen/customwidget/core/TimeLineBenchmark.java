@@ -0,0 +1,74 @@
+package com.maureen.customwidget.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间线一帧的工作：根据裁剪区域计算可见节点范围，再计算可见节点和竖线的坐标
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeLineBenchmark {
+    private static final int VIEWPORT_HEIGHT = 1920;
+
+    @Param({"10", "1000", "100000"})
+    public int nodeCount;
+
+    private final TimeLineLayout mLayout = new TimeLineLayout();
+    private float[] mCenterY = new float[0];
+    private float[] mLinePoints = new float[0];
+    private int mScrollY;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mLayout.heights().append(nodeCount, 348);
+        for (int i = 0; i < nodeCount; i += 7) {
+            mLayout.heights().set(i, 200 + random.nextInt(300));
+        }
+        mLayout.setExtents(6, 30);
+    }
+
+    @Benchmark
+    public int visibleRange() {
+        int top = nextScroll();
+        return mLayout.lastVisible(top + VIEWPORT_HEIGHT) - mLayout.firstVisible(top);
+    }
+
+    @Benchmark
+    public int visibleGeometry() {
+        int top = nextScroll();
+        int first = mLayout.firstVisible(top);
+        int last = mLayout.lastVisible(top + VIEWPORT_HEIGHT);
+        if (first > last) {
+            return 0;
+        }
+        int count = last - first + 1;
+        if (mCenterY.length < count) {
+            mCenterY = new float[count];
+            mLinePoints = new float[count * 4];
+        }
+        return mLayout.computeGeometry(first, last, 29, 29, 6, 10, mCenterY, mLinePoints);
+    }
+
+    /**
+     * 每次滚动一段距离，到底后回到顶部
+     */
+    private int nextScroll() {
+        mScrollY += 37;
+        if (mScrollY > mLayout.getTotalHeight()) {
+            mScrollY = 0;
+        }
+        return mScrollY;
+    }
+}
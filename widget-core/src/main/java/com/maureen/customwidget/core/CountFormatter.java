@@ -0,0 +1,44 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 命中数量格式化，直接写入复用的char数组，不产生String
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class CountFormatter {
+    /**
+     * 足够容纳任意long值（含负号）的缓冲区长度
+     */
+    public static final int BUFFER_SIZE = 20;
+
+    private CountFormatter() {
+    }
+
+    /**
+     * 把value的十进制表示写入out
+     *
+     * @return 写入的字符数
+     */
+    public static int format(long value, char[] out) {
+        if (value == 0) {
+            out[0] = '0';
+            return 1;
+        }
+        int digits = 0;
+        //按负数处理，避免Long.MIN_VALUE取反溢出
+        long negative = value < 0 ? value : -value;
+        for (long remain = negative; remain != 0; remain /= 10) {
+            digits++;
+        }
+        int length = value < 0 ? digits + 1 : digits;
+        if (value < 0) {
+            out[0] = '-';
+        }
+        for (int i = length - 1; negative != 0; i--) {
+            out[i] = (char) ('0' - negative % 10);
+            negative /= 10;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,19 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 动画缓动函数，把[0, 1]的时间进度映射为动画进度
+ * 与android.view.animation.Interpolator签名相同，控件里用它包装插值器
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public interface Easing {
+    Easing LINEAR = new Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    float getInterpolation(float input);
+}
@@ -0,0 +1,69 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 插值器查找表，把插值器在[0, 1]上等间距采样，查询时在相邻两个采样点间线性插值
+ * 每次查询只是一次数组访问，不再调用插值器的虚方法
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class InterpolatorTable {
+    public static final int DEFAULT_SIZE = 256;
+
+    /**
+     * 采样值，mValues[i]为插值器在i / (size - 1)处的值
+     */
+    private final float[] mValues;
+    private final float mScale;
+
+    public InterpolatorTable(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Table size must be at least 2: " + size);
+        }
+        mValues = new float[size];
+        mScale = size - 1;
+    }
+
+    /**
+     * 重新采样插值器，在设置插值器时调用
+     */
+    public void bake(Easing interpolator) {
+        for (int i = 0; i < mValues.length; i++) {
+            mValues[i] = interpolator.getInterpolation(i / mScale);
+        }
+    }
+
+    /**
+     * 查询input处的插值结果，input超出[0, 1]时按边界取值
+     */
+    public float get(float input) {
+        return getAt(position(input));
+    }
+
+    /**
+     * 把input换算成采样位置，整数部分为下标，小数部分为相邻采样点间的比例，input超出[0, 1]时取边界。
+     * 同尺寸的多张表可以共用一次换算，再分别调用{@link #getAt(float)}
+     */
+    public float position(float input) {
+        if (input <= 0f) {
+            return 0f;
+        }
+        if (input >= 1f) {
+            return mScale;
+        }
+        return input * mScale;
+    }
+
+    /**
+     * 查询{@link #position(float)}换算出的采样位置处的值
+     */
+    public float getAt(float position) {
+        int index = (int) position;
+        if (index >= mValues.length - 1) {
+            return mValues[mValues.length - 1];
+        }
+        float fraction = position - index;
+        float start = mValues[index];
+        return start + (mValues[index + 1] - start) * fraction;
+    }
+}
@@ -0,0 +1,56 @@
+package com.maureen.customwidget.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Function: 固定分桶的耗时直方图，桶的上界按2倍递增，记录只是一次原子自增，不加锁不分配
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class LatencyHistogram {
+    /**
+     * 各个桶的上界（不含），单位ns，最后一个桶收集所有更长的耗时
+     */
+    private static final long[] UPPER_BOUNDS_NANOS = {
+            250_000L, 500_000L, 1_000_000L, 2_000_000L, 4_000_000L,
+            8_000_000L, 16_000_000L, 32_000_000L, Long.MAX_VALUE
+    };
+    public static final int BUCKET_COUNT = UPPER_BOUNDS_NANOS.length;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 第index个桶的上界，单位ns，最后一个桶为Long.MAX_VALUE
+     */
+    public static long upperBoundNanos(int index) {
+        return UPPER_BOUNDS_NANOS[index];
+    }
+
+    static int bucketOf(long nanos) {
+        int index = 0;
+        while (nanos >= UPPER_BOUNDS_NANOS[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    public void record(long nanos) {
+        mCounts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+    }
+
+    /**
+     * 把各个桶的计数复制到out中
+     */
+    public void copyCounts(long[] out) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            out[i] = mCounts.get(i);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mCounts.set(i, 0);
+        }
+    }
+}
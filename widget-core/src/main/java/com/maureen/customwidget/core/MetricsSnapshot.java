@@ -0,0 +1,68 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 某一时刻控件绘制统计的不可变副本，用于导出到外部的监控系统
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class MetricsSnapshot {
+    public final long framesDrawn;
+    public final long totalDrawNanos;
+    public final long maxDrawNanos;
+    public final long invalidationsRequested;
+    /**
+     * 在上一次请求尚未绘制时到达、被合并到同一帧的刷新请求数
+     */
+    public final long invalidationsCoalesced;
+    public final long ripplesSpawned;
+    public final int activeRipples;
+    private final long[] mDrawTimeBuckets;
+
+    MetricsSnapshot(long framesDrawn, long totalDrawNanos, long maxDrawNanos, long invalidationsRequested,
+                    long invalidationsCoalesced, long ripplesSpawned, int activeRipples, long[] drawTimeBuckets) {
+        this.framesDrawn = framesDrawn;
+        this.totalDrawNanos = totalDrawNanos;
+        this.maxDrawNanos = maxDrawNanos;
+        this.invalidationsRequested = invalidationsRequested;
+        this.invalidationsCoalesced = invalidationsCoalesced;
+        this.ripplesSpawned = ripplesSpawned;
+        this.activeRipples = activeRipples;
+        mDrawTimeBuckets = drawTimeBuckets;
+    }
+
+    /**
+     * 绘制耗时落在第index个桶的帧数，桶的上界见LatencyHistogram.upperBoundNanos
+     */
+    public long getDrawTimeCount(int index) {
+        return mDrawTimeBuckets[index];
+    }
+
+    public long getAverageDrawNanos() {
+        return framesDrawn == 0 ? 0 : totalDrawNanos / framesDrawn;
+    }
+
+    /**
+     * 绘制耗时的分位数，返回所在桶的上界，精度为桶宽
+     *
+     * @param percentile 0到1
+     */
+    public long getDrawTimePercentileNanos(double percentile) {
+        long total = 0;
+        for (long count : mDrawTimeBuckets) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < mDrawTimeBuckets.length; i++) {
+            seen += mDrawTimeBuckets[i];
+            if (seen >= rank) {
+                return LatencyHistogram.upperBoundNanos(i);
+            }
+        }
+        return LatencyHistogram.upperBoundNanos(mDrawTimeBuckets.length - 1);
+    }
+}
@@ -0,0 +1,146 @@
+package com.maureen.customwidget.core;
+
+import java.util.Arrays;
+
+/**
+ * Function: 节点高度的树状数组（Fenwick树）
+ * 查询节点顶部位置、按y坐标查找节点、修改单个节点高度都是O(log n)
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class NodeHeightIndex {
+    /**
+     * 每个节点的高度
+     */
+    private int[] mHeights = new int[0];
+    /**
+     * 树状数组，下标从1开始，mTree[k]为(k - lowbit(k), k]范围内节点高度之和
+     */
+    private int[] mTree = new int[1];
+    private int mSize;
+
+    public int size() {
+        return mSize;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return mHeights[index];
+    }
+
+    /**
+     * 在末尾追加count个高度为height的节点，每个节点O(log n)
+     */
+    public void append(int count, int height) {
+        if (count <= 0) {
+            return;
+        }
+        checkHeight(height);
+        if (mSize + count > mHeights.length) {
+            grow(mSize + count);
+        }
+        for (int i = 0; i < count; i++) {
+            int k = ++mSize;
+            mHeights[k - 1] = height;
+            mTree[k] = height + prefixSum(k - 1) - prefixSum(k - (k & -k));
+        }
+    }
+
+    /**
+     * 修改一个节点的高度，O(log n)
+     */
+    public void set(int index, int height) {
+        checkIndex(index);
+        checkHeight(height);
+        int delta = height - mHeights[index];
+        if (delta == 0) {
+            return;
+        }
+        mHeights[index] = height;
+        for (int k = index + 1; k <= mSize; k += k & -k) {
+            mTree[k] += delta;
+        }
+    }
+
+    /**
+     * 移除[fromIndex, toIndex)范围内的节点，需要重建，O(n)
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > mSize || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("from " + fromIndex + " to " + toIndex + " size " + mSize);
+        }
+        System.arraycopy(mHeights, toIndex, mHeights, fromIndex, mSize - toIndex);
+        mSize -= toIndex - fromIndex;
+        rebuild();
+    }
+
+    /**
+     * 前index个节点的高度之和，即节点index的顶部位置，O(log n)
+     */
+    public int prefixSum(int index) {
+        int sum = 0;
+        for (int k = index; k > 0; k -= k & -k) {
+            sum += mTree[k];
+        }
+        return sum;
+    }
+
+    public int total() {
+        return prefixSum(mSize);
+    }
+
+    /**
+     * 查找y坐标所在的节点，O(log n)
+     *
+     * @return y小于0时返回-1，超出所有节点时返回size()
+     */
+    public int indexOf(int y) {
+        if (y < 0) {
+            return -1;
+        }
+        int pos = 0;
+        int remain = y;
+        for (int step = Integer.highestOneBit(Math.max(1, mSize)); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= mSize && mTree[next] <= remain) {
+                pos = next;
+                remain -= mTree[next];
+            }
+        }
+        return pos;
+    }
+
+    private void grow(int capacity) {
+        int newCapacity = Math.max(capacity, mHeights.length * 2);
+        mHeights = Arrays.copyOf(mHeights, newCapacity);
+        mTree = new int[newCapacity + 1];
+        rebuild();
+    }
+
+    /**
+     * 由节点高度O(n)重建树状数组
+     */
+    private void rebuild() {
+        Arrays.fill(mTree, 0);
+        for (int k = 1; k <= mSize; k++) {
+            mTree[k] += mHeights[k - 1];
+            int parent = k + (k & -k);
+            if (parent <= mSize) {
+                mTree[parent] += mTree[k];
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + mSize);
+        }
+    }
+
+    private static void checkHeight(int height) {
+        if (height < 0) {
+            throw new IllegalArgumentException("Negative node height " + height);
+        }
+    }
+}
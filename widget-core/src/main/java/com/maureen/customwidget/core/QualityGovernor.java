@@ -0,0 +1,126 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 绘制质量调节器，根据最近的帧间隔和发热等级逐级降低或恢复绘制质量
+ * 等级越高质量越低，每一级都包含前面各级的降级措施
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class QualityGovernor {
+    /**
+     * 完整质量
+     */
+    public static final int LEVEL_FULL = 0;
+    /**
+     * 降低波纹创建频率，同时存活的波纹减半
+     */
+    public static final int LEVEL_FEWER_RIPPLES = 1;
+    /**
+     * 波纹隔帧刷新
+     */
+    public static final int LEVEL_HALF_FRAME_RATE = 2;
+    /**
+     * 波纹关闭抗锯齿
+     */
+    public static final int LEVEL_NO_ANTIALIAS = 3;
+    /**
+     * 不再显示波纹，只有发热等级能降到这一级
+     */
+    public static final int LEVEL_NO_RIPPLES = 4;
+
+    /**
+     * 每统计这么多帧判断一次是否需要调整等级
+     */
+    public static final int WINDOW_FRAMES = 30;
+    /**
+     * 连续这么多个统计窗口都没有掉帧才恢复一级，避免来回切换
+     */
+    public static final int RECOVER_WINDOWS = 4;
+    /**
+     * 超过这个间隔的两帧之间视为动画中断，不计入统计
+     */
+    public static final long GAP_MILLIS = 250;
+
+    private float mFrameBudgetMillis;
+    /**
+     * 由帧间隔决定的等级，不超过LEVEL_NO_ANTIALIAS
+     */
+    private int mFrameLevel = LEVEL_FULL;
+    /**
+     * 由发热等级决定的最低降级等级
+     */
+    private int mThermalFloor = LEVEL_FULL;
+    private int mWindowFrames;
+    private int mWindowSlowFrames;
+    private int mCleanWindows;
+
+    public QualityGovernor(float frameBudgetMillis) {
+        setFrameBudget(frameBudgetMillis);
+    }
+
+    /**
+     * 设置一帧的时间预算，一般为屏幕刷新间隔
+     */
+    public void setFrameBudget(float frameBudgetMillis) {
+        mFrameBudgetMillis = Math.max(1f, frameBudgetMillis);
+    }
+
+    public int getLevel() {
+        return Math.max(mFrameLevel, mThermalFloor);
+    }
+
+    /**
+     * 记录一帧的间隔，超过预算1.5倍视为掉帧
+     *
+     * @return 当前等级是否变化
+     */
+    public boolean onFrame(long frameDurationMillis) {
+        if (frameDurationMillis <= 0 || frameDurationMillis > GAP_MILLIS) {
+            return false;
+        }
+        mWindowFrames++;
+        if (frameDurationMillis > mFrameBudgetMillis * 1.5f) {
+            mWindowSlowFrames++;
+        }
+        if (mWindowFrames < WINDOW_FRAMES) {
+            return false;
+        }
+        int level = getLevel();
+        if (mWindowSlowFrames > WINDOW_FRAMES / 4) {
+            mCleanWindows = 0;
+            if (mFrameLevel < LEVEL_NO_ANTIALIAS) {
+                mFrameLevel++;
+            }
+        } else if (mWindowSlowFrames == 0) {
+            if (++mCleanWindows >= RECOVER_WINDOWS && mFrameLevel > LEVEL_FULL) {
+                mFrameLevel--;
+                mCleanWindows = 0;
+            }
+        } else {
+            mCleanWindows = 0;
+        }
+        mWindowFrames = 0;
+        mWindowSlowFrames = 0;
+        return level != getLevel();
+    }
+
+    /**
+     * 设置发热导致的最低降级等级，发热缓解后立即恢复
+     *
+     * @return 当前等级是否变化
+     */
+    public boolean setThermalFloor(int level) {
+        int old = getLevel();
+        mThermalFloor = Math.max(LEVEL_FULL, Math.min(LEVEL_NO_RIPPLES, level));
+        return old != getLevel();
+    }
+
+    /**
+     * 清空当前统计窗口，动画暂停恢复后调用
+     */
+    public void resetWindow() {
+        mWindowFrames = 0;
+        mWindowSlowFrames = 0;
+    }
+}
@@ -0,0 +1,213 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 波纹动画的状态和计算，包括波纹的创建、过期以及每个波纹当前的半径和透明度
+ * 不依赖Android，控件只负责提供帧时间和绘制
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class RippleModel {
+    /**
+     * 存活波纹的创建时间，容量由mDuration / mSpeed决定
+     */
+    private final RippleRingBuffer mRipples;
+    /**
+     * 一个波纹从创建到消失的持续时间
+     */
+    private long mDuration;
+    /**
+     * 波纹的创建间隔
+     */
+    private int mSpeed;
+    private long mLastCreateTime;
+    /**
+     * 初始波纹半径
+     */
+    private float mInitialRadius;
+    /**
+     * 最大波纹半径
+     */
+    private float mMaxRadius;
+
+    private Easing mEasing = Easing.LINEAR;
+    /**
+     * 缓动函数的采样表，开启后每次计算只查表
+     */
+    private InterpolatorTable mTable;
+    /**
+     * 透明度使用的缓动值按存活比例采样，即ease(ease(t))，与mTable尺寸相同，共用一次下标换算
+     */
+    private InterpolatorTable mAlphaTable;
+    /**
+     * 上次sample计算出的透明度
+     */
+    private int mSampledAlpha;
+
+    public RippleModel(long duration, int speed) {
+        mDuration = duration;
+        mSpeed = speed;
+        mRipples = new RippleRingBuffer(RippleRingBuffer.capacityFor(duration, speed));
+    }
+
+    public RippleRingBuffer ripples() {
+        return mRipples;
+    }
+
+    public long getDuration() {
+        return mDuration;
+    }
+
+    public void setDuration(long duration) {
+        mDuration = duration;
+        mRipples.ensureCapacity(RippleRingBuffer.capacityFor(mDuration, mSpeed));
+    }
+
+    public int getSpeed() {
+        return mSpeed;
+    }
+
+    public float getInitialRadius() {
+        return mInitialRadius;
+    }
+
+    public float getMaxRadius() {
+        return mMaxRadius;
+    }
+
+    public void setInitialRadius(float initialRadius) {
+        mInitialRadius = initialRadius;
+    }
+
+    public void setMaxRadius(float maxRadius) {
+        mMaxRadius = maxRadius;
+    }
+
+    public void setEasing(Easing easing) {
+        mEasing = easing != null ? easing : Easing.LINEAR;
+        if (mTable != null) {
+            bakeTables();
+        }
+    }
+
+    /**
+     * 设置是否把缓动函数采样成查找表，开启后结果在采样点之间线性近似，输入超出[0, 1]时取边界值
+     */
+    public void setTableEnabled(boolean enabled) {
+        if (enabled == (mTable != null)) {
+            return;
+        }
+        if (enabled) {
+            mTable = new InterpolatorTable(InterpolatorTable.DEFAULT_SIZE);
+            mAlphaTable = new InterpolatorTable(InterpolatorTable.DEFAULT_SIZE);
+            bakeTables();
+        } else {
+            mTable = null;
+            mAlphaTable = null;
+        }
+    }
+
+    private void bakeTables() {
+        final Easing easing = mEasing;
+        mTable.bake(easing);
+        mAlphaTable.bake(new Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return easing.getInterpolation(easing.getInterpolation(input));
+            }
+        });
+    }
+
+    public boolean isTableEnabled() {
+        return mTable != null;
+    }
+
+    public float ease(float input) {
+        if (mTable != null) {
+            return mTable.get(input);
+        }
+        return mEasing.getInterpolation(input);
+    }
+
+    public long getLastCreateTime() {
+        return mLastCreateTime;
+    }
+
+    public void setLastCreateTime(long lastCreateTime) {
+        mLastCreateTime = lastCreateTime;
+    }
+
+    /**
+     * 下一帧立即创建一个波纹
+     */
+    public void restart(long now) {
+        mLastCreateTime = now - mSpeed;
+    }
+
+    /**
+     * 推进到now：移除过期的波纹，距上次创建超过spawnInterval时创建新波纹
+     *
+     * @param spawnInterval 创建间隔，小于0时不创建
+     * @return 波纹数量是否变化
+     */
+    public boolean update(long now, long spawnInterval) {
+        boolean changed = mRipples.expire(now, mDuration) > 0;
+        if (spawnInterval >= 0 && now - mLastCreateTime >= spawnInterval) {
+            mRipples.add(now);
+            mLastCreateTime = now;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * 根据波纹已存活的时间计算当前半径
+     */
+    public float radius(long elapsed) {
+        float percent = elapsed * 1.0f / mDuration;
+        return mInitialRadius + ease(percent) * (mMaxRadius - mInitialRadius);
+    }
+
+    /**
+     * 计算存活elapsed毫秒的波纹的半径，同时计算透明度，通过{@link #getSampledAlpha()}读取。
+     * 与依次调用radius和alpha的结果相同，查表模式下两者只换算一次下标
+     */
+    public float sample(long elapsed) {
+        float percent = elapsed * 1.0f / mDuration;
+        float eased;
+        float alphaEased;
+        if (mTable != null) {
+            float position = mTable.position(percent);
+            eased = mTable.getAt(position);
+            alphaEased = mAlphaTable.getAt(position);
+        } else {
+            eased = mEasing.getInterpolation(percent);
+            alphaEased = mEasing.getInterpolation(eased);
+        }
+        mSampledAlpha = (int) (255 - alphaEased * 255);
+        return mInitialRadius + eased * (mMaxRadius - mInitialRadius);
+    }
+
+    /**
+     * 上次{@link #sample(long)}计算出的透明度
+     */
+    public int getSampledAlpha() {
+        return mSampledAlpha;
+    }
+
+    /**
+     * 根据波纹当前半径计算透明度，越靠外越透明
+     */
+    public int alpha(float rippleRadius) {
+        float percent = (rippleRadius - mInitialRadius) / (mMaxRadius - mInitialRadius);
+        return (int) (255 - ease(percent) * 255);
+    }
+
+    /**
+     * 所有时间整体平移delta，用于暂停恢复时保持波纹相位
+     */
+    public void offset(long delta) {
+        mRipples.offset(delta);
+        mLastCreateTime += delta;
+    }
+}
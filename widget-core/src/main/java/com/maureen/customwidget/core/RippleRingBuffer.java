@@ -0,0 +1,126 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 波纹创建时间的环形缓冲区
+ * 预分配long数组保存每个波纹的创建时间，添加、过期和遍历都不产生新对象
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class RippleRingBuffer {
+    /**
+     * 波纹创建时间，按创建顺序排列
+     */
+    private long[] mStartTimes;
+    /**
+     * 最早创建的波纹所在下标
+     */
+    private int mHead;
+    /**
+     * 当前存活的波纹数量
+     */
+    private int mSize;
+
+    public RippleRingBuffer(int capacity) {
+        mStartTimes = new long[Math.max(1, capacity)];
+    }
+
+    /**
+     * 根据波纹持续时间和创建间隔计算同时存活的最大波纹数
+     *
+     * @param duration 一个波纹从创建到消失的持续时间
+     * @param speed    波纹的创建间隔
+     */
+    public static int capacityFor(long duration, long speed) {
+        if (speed <= 0) {
+            return 1;
+        }
+        return (int) ((duration + speed - 1) / speed) + 1;
+    }
+
+    /**
+     * 保证容量不小于capacity，只有在需要扩容时才会重新分配数组
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= mStartTimes.length) {
+            return;
+        }
+        long[] startTimes = new long[capacity];
+        for (int i = 0; i < mSize; i++) {
+            startTimes[i] = get(i);
+        }
+        mStartTimes = startTimes;
+        mHead = 0;
+    }
+
+    public int capacity() {
+        return mStartTimes.length;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * 添加一个波纹，缓冲区已满时覆盖最早创建的波纹
+     *
+     * @param startTime 波纹创建时间
+     */
+    public void add(long startTime) {
+        int capacity = mStartTimes.length;
+        if (mSize == capacity) {
+            mStartTimes[mHead] = startTime;
+            mHead = (mHead + 1) % capacity;
+            return;
+        }
+        mStartTimes[(mHead + mSize) % capacity] = startTime;
+        mSize++;
+    }
+
+    /**
+     * 按创建顺序获取波纹的创建时间，0为最早创建的波纹
+     */
+    public long get(int index) {
+        return mStartTimes[(mHead + index) % mStartTimes.length];
+    }
+
+    /**
+     * 波纹在数组中的位置，波纹存活期间不变，可用来关联每个波纹的绘制缓存
+     */
+    public int slot(int index) {
+        return (mHead + index) % mStartTimes.length;
+    }
+
+    /**
+     * 移除所有已经存活满duration的波纹，波纹按创建顺序排列所以只需从头部移除
+     *
+     * @return 移除的波纹数量
+     */
+    public int expire(long now, long duration) {
+        int removed = 0;
+        while (mSize > 0 && now - mStartTimes[mHead] >= duration) {
+            mHead = (mHead + 1) % mStartTimes.length;
+            mSize--;
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * 所有波纹的创建时间整体平移delta，用于暂停恢复时保持波纹相位
+     */
+    public void offset(long delta) {
+        for (int i = 0; i < mSize; i++) {
+            mStartTimes[(mHead + i) % mStartTimes.length] += delta;
+        }
+    }
+
+    public void clear() {
+        mHead = 0;
+        mSize = 0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 计时器文本格式化，直接写入复用的char数组，不产生String
+ * 格式为HH:MM:SS，可选显示一位或两位小数秒，如00:01:05.3、00:01:05.27
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class TimeFormatter {
+    /**
+     * 支持的最大小数位数
+     */
+    public static final int MAX_FRACTION_DIGITS = 2;
+    /**
+     * 足够容纳任意long毫秒数的缓冲区长度
+     */
+    public static final int BUFFER_SIZE = 24;
+
+    private TimeFormatter() {
+    }
+
+    /**
+     * 显示精度对应的毫秒数，显示值只有在elapsed / unit变化时才会变化
+     */
+    public static long displayUnit(int fractionDigits) {
+        switch (fractionDigits) {
+            case 1:
+                return 100;
+            case 2:
+                return 10;
+            default:
+                return 1000;
+        }
+    }
+
+    /**
+     * 把经过的毫秒数格式化到out中
+     *
+     * @param elapsedMillis  经过的毫秒数，负数按0处理
+     * @param fractionDigits 小数位数，0到2
+     * @param out            输出缓冲区，长度至少为BUFFER_SIZE
+     * @return 写入的字符数
+     */
+    public static int format(long elapsedMillis, int fractionDigits, char[] out) {
+        if (elapsedMillis < 0) {
+            elapsedMillis = 0;
+        }
+        long totalSeconds = elapsedMillis / 1000;
+        long hours = totalSeconds / 3600;
+        int minutes = (int) (totalSeconds / 60 % 60);
+        int seconds = (int) (totalSeconds % 60);
+
+        int pos = writeHours(hours, out);
+        out[pos++] = ':';
+        pos = writeTwoDigits(minutes, out, pos);
+        out[pos++] = ':';
+        pos = writeTwoDigits(seconds, out, pos);
+        if (fractionDigits > 0) {
+            int millis = (int) (elapsedMillis % 1000);
+            out[pos++] = '.';
+            if (fractionDigits == 1) {
+                out[pos++] = (char) ('0' + millis / 100);
+            } else {
+                pos = writeTwoDigits(millis / 10, out, pos);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * 小时至少两位，超过99小时按实际位数输出
+     */
+    private static int writeHours(long hours, char[] out) {
+        if (hours < 100) {
+            return writeTwoDigits((int) hours, out, 0);
+        }
+        int digits = 0;
+        for (long value = hours; value > 0; value /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            out[i] = (char) ('0' + hours % 10);
+            hours /= 10;
+        }
+        return digits;
+    }
+
+    private static int writeTwoDigits(int value, char[] out, int pos) {
+        out[pos] = (char) ('0' + value / 10);
+        out[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+}
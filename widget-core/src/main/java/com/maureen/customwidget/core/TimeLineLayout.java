@@ -0,0 +1,122 @@
+package com.maureen.customwidget.core;
+
+/**
+ * Function: 时间线节点的纵向布局，根据可见区域计算需要绘制的节点范围
+ * 节点高度保存在树状数组中，查询和修改都是O(log n)
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class TimeLineLayout {
+    /**
+     * 每个节点所占的高度
+     */
+    private final NodeHeightIndex mHeights = new NodeHeightIndex();
+    /**
+     * 节点绘制内容超出节点顶部的距离
+     */
+    private int mExtentAbove;
+    /**
+     * 节点绘制内容（含竖线）超出节点底部的距离
+     */
+    private int mOvershootBelow;
+
+    public NodeHeightIndex heights() {
+        return mHeights;
+    }
+
+    public void setExtents(int extentAbove, int overshootBelow) {
+        mExtentAbove = Math.max(0, extentAbove);
+        mOvershootBelow = Math.max(0, overshootBelow);
+    }
+
+    public int getNodeCount() {
+        return mHeights.size();
+    }
+
+    /**
+     * 节点顶部的y坐标
+     */
+    public int getNodeTop(int index) {
+        return mHeights.prefixSum(index);
+    }
+
+    public int getNodeHeight(int index) {
+        return mHeights.get(index);
+    }
+
+    /**
+     * 所有节点的总高度
+     */
+    public int getTotalHeight() {
+        return mHeights.total();
+    }
+
+    /**
+     * 绘制内容的底部，最后一个节点的内容高度为lastNodeExtent，不足节点高度时按节点高度算
+     */
+    public int getContentBottom(int lastNodeExtent) {
+        int count = mHeights.size();
+        if (count == 0) {
+            return 0;
+        }
+        int lastTop = mHeights.prefixSum(count - 1);
+        return lastTop + Math.max(mHeights.get(count - 1), lastNodeExtent);
+    }
+
+    /**
+     * y坐标所在的节点，没有时返回-1
+     */
+    public int getNodeAt(int y) {
+        int index = mHeights.indexOf(y);
+        return index >= mHeights.size() ? -1 : index;
+    }
+
+    /**
+     * 计算[first, last]范围内节点圆心和竖线的坐标，只查询一次树状数组，之后逐个累加节点高度。
+     * 最后一个节点没有竖线，竖线终点随节点高度伸缩
+     *
+     * @param centerX       节点圆心x坐标
+     * @param centerOffset  节点圆心到节点顶部的距离
+     * @param lineStart     竖线起点到圆心的距离
+     * @param lineEndOffset 竖线终点到圆心的距离减去节点高度
+     * @param centerY       输出每个节点圆心的y坐标，长度不小于last - first + 1
+     * @param linePoints    输出竖线坐标，每条竖线4个值，长度不小于(last - first + 1) * 4
+     * @return 竖线数量
+     */
+    public int computeGeometry(int first, int last, float centerX, float centerOffset, float lineStart,
+                               float lineEndOffset, float[] centerY, float[] linePoints) {
+        int count = mHeights.size();
+        int top = mHeights.prefixSum(first);
+        int lineCount = 0;
+        for (int j = first; j <= last; j++) {
+            int height = mHeights.get(j);
+            float y = top + centerOffset;
+            centerY[j - first] = y;
+            if (j < count - 1) {
+                int offset = lineCount * 4;
+                linePoints[offset] = centerX;
+                linePoints[offset + 1] = y + lineStart;
+                linePoints[offset + 2] = centerX;
+                linePoints[offset + 3] = y + height + lineEndOffset;
+                lineCount++;
+            }
+            top += height;
+        }
+        return lineCount;
+    }
+
+    /**
+     * 第一个与[clipTop, +∞)相交的节点，没有时返回节点数量
+     */
+    public int firstVisible(int clipTop) {
+        return Math.max(0, mHeights.indexOf(clipTop - mOvershootBelow));
+    }
+
+    /**
+     * 最后一个与(-∞, clipBottom)相交的节点，没有时返回-1
+     */
+    public int lastVisible(int clipBottom) {
+        return Math.min(mHeights.size() - 1, mHeights.indexOf(clipBottom + mExtentAbove - 1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.maureen.customwidget.core;
+
+import java.util.Arrays;
+
+/**
+ * Function: 时间线节点数据，按下标保存在基本类型数组中，不为每个节点创建对象
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class TimeLineNodes {
+    /**
+     * 节点标记：高亮、使用自定义颜色。颜色可以是任意ARGB值，是否自定义单独记录
+     */
+    private static final byte FLAG_HIGHLIGHTED = 1;
+    private static final byte FLAG_CUSTOM_COLOR = 1 << 1;
+
+    private byte[] mStates = new byte[0];
+    private int[] mColors = new int[0];
+    private byte[] mFlags = new byte[0];
+    private int mSize;
+
+    public int size() {
+        return mSize;
+    }
+
+    public byte getState(int index) {
+        return mStates[index];
+    }
+
+    /**
+     * 自定义颜色，hasCustomColor为false时无意义
+     */
+    public int getColor(int index) {
+        return mColors[index];
+    }
+
+    public boolean hasCustomColor(int index) {
+        return (mFlags[index] & FLAG_CUSTOM_COLOR) != 0;
+    }
+
+    public boolean isHighlighted(int index) {
+        return (mFlags[index] & FLAG_HIGHLIGHTED) != 0;
+    }
+
+    /**
+     * 在末尾追加count个节点
+     */
+    public void append(int count, byte state) {
+        if (count <= 0) {
+            return;
+        }
+        ensureCapacity(mSize + count);
+        int end = mSize + count;
+        Arrays.fill(mStates, mSize, end, state);
+        Arrays.fill(mColors, mSize, end, 0);
+        Arrays.fill(mFlags, mSize, end, (byte) 0);
+        mSize = end;
+    }
+
+    /**
+     * 设置节点，使用自定义颜色
+     */
+    public void set(int index, byte state, int color, boolean highlighted) {
+        checkIndex(index);
+        mStates[index] = state;
+        mColors[index] = color;
+        mFlags[index] = (byte) (FLAG_CUSTOM_COLOR | (highlighted ? FLAG_HIGHLIGHTED : 0));
+    }
+
+    /**
+     * 设置节点，按节点状态取色
+     */
+    public void set(int index, byte state, boolean highlighted) {
+        checkIndex(index);
+        mStates[index] = state;
+        mColors[index] = 0;
+        mFlags[index] = highlighted ? FLAG_HIGHLIGHTED : 0;
+    }
+
+    /**
+     * 移除[fromIndex, toIndex)范围内的节点，后面的节点前移
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > mSize || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("from " + fromIndex + " to " + toIndex + " size " + mSize);
+        }
+        int moved = mSize - toIndex;
+        System.arraycopy(mStates, toIndex, mStates, fromIndex, moved);
+        System.arraycopy(mColors, toIndex, mColors, fromIndex, moved);
+        System.arraycopy(mFlags, toIndex, mFlags, fromIndex, moved);
+        mSize -= toIndex - fromIndex;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mStates.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mStates.length * 2);
+        mStates = Arrays.copyOf(mStates, newCapacity);
+        mColors = Arrays.copyOf(mColors, newCapacity);
+        mFlags = Arrays.copyOf(mFlags, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + mSize);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.maureen.customwidget.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Function: 控件的绘制统计：帧数、绘制耗时直方图、刷新请求和合并次数、波纹数量
+ * 计数器都是原子变量，可以在任意线程记录和读取；控件未开启统计时不持有该对象，没有任何开销
+ * Date:   2026/10/17
+ *
+ * @author Lianml
+ */
+public final class WidgetMetrics {
+
+    /**
+     * 定期接收统计快照，在记录绘制的线程（一般为主线程）回调
+     */
+    public interface Listener {
+        void onMetrics(MetricsSnapshot snapshot);
+    }
+
+    private final AtomicLong mFramesDrawn = new AtomicLong();
+    private final AtomicLong mTotalDrawNanos = new AtomicLong();
+    private final AtomicLong mMaxDrawNanos = new AtomicLong();
+    private final AtomicLong mInvalidationsRequested = new AtomicLong();
+    private final AtomicLong mInvalidationsCoalesced = new AtomicLong();
+    private final AtomicLong mRipplesSpawned = new AtomicLong();
+    private final AtomicInteger mActiveRipples = new AtomicInteger();
+    private final LatencyHistogram mDrawTime = new LatencyHistogram();
+
+    private volatile Listener mListener;
+    private volatile long mReportIntervalNanos;
+    private long mLastReportNanos;
+
+    /**
+     * 记录一次绘制的耗时，到了上报间隔时回调监听器
+     *
+     * @param startNanos 绘制开始时的System.nanoTime()
+     * @param endNanos   绘制结束时的System.nanoTime()
+     */
+    public void recordDraw(long startNanos, long endNanos) {
+        long nanos = endNanos - startNanos;
+        mFramesDrawn.incrementAndGet();
+        mTotalDrawNanos.addAndGet(nanos);
+        mDrawTime.record(nanos);
+        long max = mMaxDrawNanos.get();
+        while (nanos > max && !mMaxDrawNanos.compareAndSet(max, nanos)) {
+            max = mMaxDrawNanos.get();
+        }
+        Listener listener = mListener;
+        if (listener != null && endNanos - mLastReportNanos >= mReportIntervalNanos) {
+            mLastReportNanos = endNanos;
+            listener.onMetrics(snapshot());
+        }
+    }
+
+    /**
+     * 记录一次刷新请求
+     *
+     * @param coalesced 是否与尚未绘制的上一次请求合并
+     */
+    public void recordInvalidate(boolean coalesced) {
+        mInvalidationsRequested.incrementAndGet();
+        if (coalesced) {
+            mInvalidationsCoalesced.incrementAndGet();
+        }
+    }
+
+    public void recordRippleSpawned() {
+        mRipplesSpawned.incrementAndGet();
+    }
+
+    public void setActiveRipples(int count) {
+        mActiveRipples.set(count);
+    }
+
+    /**
+     * 设置监听器，每隔intervalMillis在绘制后回调一次快照
+     */
+    public void setListener(Listener listener, long intervalMillis) {
+        mReportIntervalNanos = Math.max(0, intervalMillis) * 1_000_000L;
+        mListener = listener;
+    }
+
+    public MetricsSnapshot snapshot() {
+        long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+        mDrawTime.copyCounts(buckets);
+        return new MetricsSnapshot(mFramesDrawn.get(), mTotalDrawNanos.get(), mMaxDrawNanos.get(),
+                mInvalidationsRequested.get(), mInvalidationsCoalesced.get(), mRipplesSpawned.get(),
+                mActiveRipples.get(), buckets);
+    }
+
+    /**
+     * 清零所有计数，不影响监听器
+     */
+    public void reset() {
+        mFramesDrawn.set(0);
+        mTotalDrawNanos.set(0);
+        mMaxDrawNanos.set(0);
+        mInvalidationsRequested.set(0);
+        mInvalidationsCoalesced.set(0);
+        mRipplesSpawned.set(0);
+        mActiveRipples.set(0);
+        mDrawTime.reset();
+    }
+}
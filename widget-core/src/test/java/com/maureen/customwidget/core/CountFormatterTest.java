@@ -0,0 +1,24 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 命中数量格式化测试
+ */
+public class CountFormatterTest {
+    private final char[] mBuffer = new char[CountFormatter.BUFFER_SIZE];
+
+    private String format(long value) {
+        return new String(mBuffer, 0, CountFormatter.format(value, mBuffer));
+    }
+
+    @Test
+    public void format_matchesLongToString() {
+        long[] values = {0, 7, 10, 12, 999, 1_000_000, -1, -305, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            assertEquals(Long.toString(value), format(value));
+        }
+    }
+}
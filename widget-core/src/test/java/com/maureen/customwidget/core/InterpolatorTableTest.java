@@ -0,0 +1,89 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 插值器查找表精度测试，与直接调用插值器的结果对比，app实际使用的插值器见RippleEasingTableTest
+ */
+public class InterpolatorTableTest {
+    private static final int SAMPLES = 10_000;
+
+    private static final Easing LINEAR = new Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+    private static final Easing DECELERATE = new Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            return 1f - (1f - input) * (1f - input);
+        }
+    };
+
+    @Test
+    public void linear_isExact() {
+        assertMaxError(LINEAR, InterpolatorTable.DEFAULT_SIZE, 1e-6f);
+    }
+
+    @Test
+    public void decelerate_withinTolerance() {
+        assertMaxError(DECELERATE, InterpolatorTable.DEFAULT_SIZE, 1e-5f);
+    }
+
+    @Test
+    public void smallTable_errorFollowsSpacing() {
+        // 二次曲线线性插值的最大误差为 h² / 4，h为采样间距
+        float h = 1f / 7;
+        assertMaxError(DECELERATE, 8, h * h / 4 + 1e-6f);
+    }
+
+    @Test
+    public void endpointsAndOutOfRange_clamp() {
+        InterpolatorTable table = new InterpolatorTable(InterpolatorTable.DEFAULT_SIZE);
+        table.bake(DECELERATE);
+        assertEquals(0f, table.get(0f), 0f);
+        assertEquals(1f, table.get(1f), 0f);
+        assertEquals(0f, table.get(-0.5f), 0f);
+        assertEquals(1f, table.get(1.5f), 0f);
+    }
+
+    @Test
+    public void bake_replacesPreviousValues() {
+        InterpolatorTable table = new InterpolatorTable(16);
+        table.bake(DECELERATE);
+        table.bake(LINEAR);
+        assertEquals(0.3f, table.get(0.3f), 1e-6f);
+    }
+
+    @Test
+    public void sharedPosition_matchesGet() {
+        InterpolatorTable decelerate = new InterpolatorTable(16);
+        decelerate.bake(DECELERATE);
+        InterpolatorTable linear = new InterpolatorTable(16);
+        linear.bake(LINEAR);
+        for (float input : new float[]{-0.5f, 0f, 0.37f, 0.999f, 1f, 1.5f}) {
+            float position = decelerate.position(input);
+            assertEquals(decelerate.get(input), decelerate.getAt(position), 0f);
+            assertEquals(linear.get(input), linear.getAt(position), 0f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallTable_rejected() {
+        new InterpolatorTable(1);
+    }
+
+    private static void assertMaxError(Easing interpolator, int size, float tolerance) {
+        InterpolatorTable table = new InterpolatorTable(size);
+        table.bake(interpolator);
+        float maxError = 0f;
+        for (int i = 0; i <= SAMPLES; i++) {
+            float input = i / (float) SAMPLES;
+            maxError = Math.max(maxError, Math.abs(table.get(input) - interpolator.getInterpolation(input)));
+        }
+        assertTrue("max error " + maxError, maxError <= tolerance);
+    }
+}
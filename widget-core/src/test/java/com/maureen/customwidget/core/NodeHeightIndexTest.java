@@ -0,0 +1,82 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 节点高度树状数组测试，与逐个累加的结果对比
+ */
+public class NodeHeightIndexTest {
+
+    @Test
+    public void matchesNaivePrefixSums_afterRandomEdits() {
+        Random random = new Random(42);
+        NodeHeightIndex index = new NodeHeightIndex();
+        List<Integer> heights = new ArrayList<>();
+        for (int round = 0; round < 2000; round++) {
+            int op = random.nextInt(10);
+            if (op < 4 || heights.isEmpty()) {
+                int count = 1 + random.nextInt(5);
+                int height = random.nextInt(300);
+                index.append(count, height);
+                for (int i = 0; i < count; i++) {
+                    heights.add(height);
+                }
+            } else if (op < 9) {
+                int i = random.nextInt(heights.size());
+                int height = random.nextInt(300);
+                index.set(i, height);
+                heights.set(i, height);
+            } else {
+                int from = random.nextInt(heights.size());
+                int to = from + random.nextInt(heights.size() - from + 1);
+                index.removeRange(from, to);
+                heights.subList(from, to).clear();
+            }
+            assertMatches(heights, index);
+        }
+    }
+
+    @Test
+    public void indexOf_findsNodeContainingY() {
+        NodeHeightIndex index = new NodeHeightIndex();
+        index.append(3, 100);
+        index.set(1, 50);
+        assertEquals(-1, index.indexOf(-1));
+        assertEquals(0, index.indexOf(0));
+        assertEquals(0, index.indexOf(99));
+        assertEquals(1, index.indexOf(100));
+        assertEquals(2, index.indexOf(150));
+        assertEquals(2, index.indexOf(249));
+        assertEquals(3, index.indexOf(250));
+    }
+
+    @Test
+    public void indexOf_skipsZeroHeightNodes() {
+        NodeHeightIndex index = new NodeHeightIndex();
+        index.append(4, 10);
+        index.set(1, 0);
+        assertEquals(2, index.indexOf(10));
+    }
+
+    private static void assertMatches(List<Integer> heights, NodeHeightIndex index) {
+        assertEquals(heights.size(), index.size());
+        int sum = 0;
+        for (int i = 0; i < heights.size(); i++) {
+            assertEquals(sum, index.prefixSum(i));
+            assertEquals(heights.get(i).intValue(), index.get(i));
+            if (heights.get(i) > 0) {
+                assertEquals(i, index.indexOf(sum));
+                assertEquals(i, index.indexOf(sum + heights.get(i) - 1));
+            }
+            sum += heights.get(i);
+        }
+        assertEquals(sum, index.total());
+        assertEquals(heights.size(), index.indexOf(sum));
+    }
+}
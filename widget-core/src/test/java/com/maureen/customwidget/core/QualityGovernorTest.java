@@ -0,0 +1,82 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 绘制质量调节器测试
+ */
+public class QualityGovernorTest {
+    private static final float BUDGET = 16f;
+
+    private static boolean feed(QualityGovernor governor, int windows, long frameDuration) {
+        boolean changed = false;
+        for (int i = 0; i < windows * QualityGovernor.WINDOW_FRAMES; i++) {
+            changed |= governor.onFrame(frameDuration);
+        }
+        return changed;
+    }
+
+    @Test
+    public void smoothFrames_keepFullQuality() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        assertFalse(feed(governor, 10, 16));
+        assertEquals(QualityGovernor.LEVEL_FULL, governor.getLevel());
+    }
+
+    @Test
+    public void droppedFrames_stepDownOneLevelPerWindow() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        assertTrue(feed(governor, 1, 33));
+        assertEquals(QualityGovernor.LEVEL_FEWER_RIPPLES, governor.getLevel());
+        feed(governor, 1, 33);
+        assertEquals(QualityGovernor.LEVEL_HALF_FRAME_RATE, governor.getLevel());
+    }
+
+    @Test
+    public void droppedFrames_neverHideRipples() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        feed(governor, 20, 50);
+        assertEquals(QualityGovernor.LEVEL_NO_ANTIALIAS, governor.getLevel());
+    }
+
+    @Test
+    public void recovery_needsSeveralCleanWindows() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        feed(governor, 2, 33);
+        feed(governor, QualityGovernor.RECOVER_WINDOWS - 1, 16);
+        assertEquals(QualityGovernor.LEVEL_HALF_FRAME_RATE, governor.getLevel());
+        feed(governor, 1, 16);
+        assertEquals(QualityGovernor.LEVEL_FEWER_RIPPLES, governor.getLevel());
+        feed(governor, QualityGovernor.RECOVER_WINDOWS, 16);
+        assertEquals(QualityGovernor.LEVEL_FULL, governor.getLevel());
+    }
+
+    @Test
+    public void occasionalJank_doesNotChangeLevel() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        for (int i = 0; i < 10 * QualityGovernor.WINDOW_FRAMES; i++) {
+            assertFalse(governor.onFrame(i % 10 == 0 ? 33 : 16));
+        }
+        assertEquals(QualityGovernor.LEVEL_FULL, governor.getLevel());
+    }
+
+    @Test
+    public void gapsBetweenAnimations_areIgnored() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        feed(governor, 5, QualityGovernor.GAP_MILLIS + 1);
+        assertEquals(QualityGovernor.LEVEL_FULL, governor.getLevel());
+    }
+
+    @Test
+    public void thermalFloor_overridesFrameLevel() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        feed(governor, 1, 33);
+        assertTrue(governor.setThermalFloor(QualityGovernor.LEVEL_NO_RIPPLES));
+        assertEquals(QualityGovernor.LEVEL_NO_RIPPLES, governor.getLevel());
+        assertTrue(governor.setThermalFloor(QualityGovernor.LEVEL_FULL));
+        assertEquals(QualityGovernor.LEVEL_FEWER_RIPPLES, governor.getLevel());
+        assertFalse(governor.setThermalFloor(QualityGovernor.LEVEL_FEWER_RIPPLES));
+    }
+}
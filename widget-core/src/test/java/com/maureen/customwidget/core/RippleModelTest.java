@@ -0,0 +1,94 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 波纹模型测试：创建间隔、过期以及半径和透明度
+ */
+public class RippleModelTest {
+
+    private static RippleModel model() {
+        RippleModel model = new RippleModel(2000, 500);
+        model.setInitialRadius(100);
+        model.setMaxRadius(300);
+        return model;
+    }
+
+    @Test
+    public void update_spawnsAtIntervalAndExpires() {
+        RippleModel model = model();
+        model.restart(0);
+        assertTrue(model.update(0, 500));
+        assertFalse(model.update(499, 500));
+        assertTrue(model.update(500, 500));
+        for (long now = 516; now <= 2500; now += 16) {
+            model.update(now, -1);
+        }
+        // 停止创建后所有波纹都在持续时间后过期
+        assertTrue(model.ripples().isEmpty());
+    }
+
+    @Test
+    public void radiusAndAlpha_followEasing() {
+        RippleModel model = model();
+        assertEquals(100f, model.radius(0), 0f);
+        assertEquals(200f, model.radius(1000), 1e-4f);
+        assertEquals(255, model.alpha(100f));
+        assertEquals(127, model.alpha(200f));
+        model.setEasing(new Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return input * input;
+            }
+        });
+        assertEquals(150f, model.radius(1000), 1e-4f);
+    }
+
+    @Test
+    public void table_matchesEasing() {
+        RippleModel model = model();
+        model.setEasing(new Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return input * input;
+            }
+        });
+        float direct = model.radius(700);
+        model.setTableEnabled(true);
+        assertEquals(direct, model.radius(700), 1e-2f);
+    }
+
+    @Test
+    public void sample_matchesRadiusAndAlpha() {
+        RippleModel model = model();
+        model.setEasing(new Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return 1f - (1f - input) * (1f - input);
+            }
+        });
+        for (boolean table : new boolean[]{false, true}) {
+            model.setTableEnabled(table);
+            for (long elapsed = 0; elapsed <= 2000; elapsed += 50) {
+                float radius = model.sample(elapsed);
+                assertEquals(model.radius(elapsed), radius, 1e-3f);
+                // 表中采样的是两次缓动的组合，与按半径再缓动一次的结果相差不超过一级
+                assertEquals(model.alpha(radius), model.getSampledAlpha(), 1);
+            }
+        }
+    }
+
+    @Test
+    public void offset_keepsRipplePhase() {
+        RippleModel model = model();
+        model.restart(0);
+        model.update(0, 500);
+        model.update(300, 500);
+        model.offset(10_000);
+        assertEquals(10_000, model.ripples().get(0));
+        assertFalse(model.update(10_499, 500));
+        assertTrue(model.update(10_500, 500));
+    }
+}
@@ -0,0 +1,125 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 波纹环形缓冲区测试
+ */
+public class RippleRingBufferTest {
+    private static final long DURATION = 2000;
+    private static final long SPEED = 500;
+
+    @Test
+    public void capacity_coversAllLiveRipples() {
+        assertEquals(5, RippleRingBuffer.capacityFor(DURATION, SPEED));
+        assertEquals(6, RippleRingBuffer.capacityFor(2100, SPEED));
+        assertEquals(1, RippleRingBuffer.capacityFor(DURATION, 0));
+    }
+
+    @Test
+    public void expire_removesOnlyRipplesOlderThanDuration() {
+        RippleRingBuffer buffer = new RippleRingBuffer(RippleRingBuffer.capacityFor(DURATION, SPEED));
+        for (long time = 0; time <= 2000; time += SPEED) {
+            buffer.add(time);
+        }
+        assertEquals(5, buffer.size());
+
+        assertEquals(1, buffer.expire(2000, DURATION));
+        assertEquals(4, buffer.size());
+        assertEquals(500, buffer.get(0));
+        assertEquals(2000, buffer.get(3));
+
+        buffer.add(2500);
+        assertEquals(1, buffer.expire(2600, DURATION));
+        assertEquals(1000, buffer.get(0));
+        assertEquals(2500, buffer.get(3));
+    }
+
+    @Test
+    public void add_whenFull_overwritesOldest() {
+        RippleRingBuffer buffer = new RippleRingBuffer(2);
+        buffer.add(1);
+        buffer.add(2);
+        buffer.add(3);
+        assertEquals(2, buffer.size());
+        assertEquals(2, buffer.get(0));
+        assertEquals(3, buffer.get(1));
+    }
+
+    @Test
+    public void slot_staysFixedWhileRippleLives() {
+        RippleRingBuffer buffer = new RippleRingBuffer(3);
+        buffer.add(100);
+        buffer.add(200);
+        int slot = buffer.slot(1);
+        buffer.expire(1100, 1000);
+        assertEquals(200, buffer.get(0));
+        assertEquals(slot, buffer.slot(0));
+    }
+
+    @Test
+    public void ensureCapacity_keepsOrder() {
+        RippleRingBuffer buffer = new RippleRingBuffer(3);
+        buffer.add(1);
+        buffer.add(2);
+        buffer.add(3);
+        buffer.expire(3, 2);
+        buffer.add(4);
+        buffer.ensureCapacity(6);
+        assertEquals(6, buffer.capacity());
+        assertEquals(3, buffer.size());
+        assertEquals(2, buffer.get(0));
+        assertEquals(3, buffer.get(1));
+        assertEquals(4, buffer.get(2));
+    }
+
+    @Test
+    public void spawnExpireAndIterate_allocateNothing() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeAllocationCounting(threadBean);
+        long threadId = Thread.currentThread().getId();
+        RippleRingBuffer buffer = new RippleRingBuffer(RippleRingBuffer.capacityFor(DURATION, SPEED));
+
+        // 预热，避免把类加载和JIT编译的分配计算进去
+        long checksum = simulateFrames(buffer, 0, 100_000);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        checksum += simulateFrames(buffer, 100_000, 100_000);
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+
+        assertTrue(checksum != 0);
+        assertEquals(0, after - before);
+    }
+
+    /**
+     * 以16ms一帧模拟波纹的创建、过期和绘制遍历
+     */
+    private static long simulateFrames(RippleRingBuffer buffer, long startFrame, int frames) {
+        long checksum = 0;
+        long lastCreateTime = Long.MIN_VALUE / 2;
+        for (long frame = startFrame; frame < startFrame + frames; frame++) {
+            long now = frame * 16;
+            if (now - lastCreateTime >= SPEED) {
+                buffer.add(now);
+                lastCreateTime = now;
+            }
+            buffer.expire(now, DURATION);
+            for (int i = 0, size = buffer.size(); i < size; i++) {
+                checksum += now - buffer.get(i);
+            }
+        }
+        return checksum;
+    }
+
+    private static void assumeAllocationCounting(com.sun.management.ThreadMXBean threadBean) {
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        // 第一次调用本身可能产生分配
+        threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,47 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 计时器文本格式化测试
+ */
+public class TimeFormatterTest {
+    private final char[] mBuffer = new char[TimeFormatter.BUFFER_SIZE];
+
+    private String format(long elapsedMillis, int fractionDigits) {
+        int count = TimeFormatter.format(elapsedMillis, fractionDigits, mBuffer);
+        return new String(mBuffer, 0, count);
+    }
+
+    @Test
+    public void format_wholeSeconds() {
+        assertEquals("00:00:00", format(0, 0));
+        assertEquals("00:00:00", format(-5, 0));
+        assertEquals("00:01:05", format(65_999, 0));
+        assertEquals("01:00:00", format(3_600_000, 0));
+        assertEquals("99:59:59", format(359_999_000, 0));
+        assertEquals("123:04:05", format((123 * 3600 + 4 * 60 + 5) * 1000L, 0));
+    }
+
+    @Test
+    public void format_fractions() {
+        assertEquals("00:01:05.9", format(65_999, 1));
+        assertEquals("00:01:05.99", format(65_999, 2));
+        assertEquals("00:00:00.05", format(50, 2));
+        assertEquals("00:00:00.0", format(99, 1));
+    }
+
+    @Test
+    public void format_longMaxFitsBuffer() {
+        assertTrue(format(Long.MAX_VALUE, 2).length() <= TimeFormatter.BUFFER_SIZE);
+    }
+
+    @Test
+    public void displayUnit_matchesFractionDigits() {
+        assertEquals(1000, TimeFormatter.displayUnit(0));
+        assertEquals(100, TimeFormatter.displayUnit(1));
+        assertEquals(10, TimeFormatter.displayUnit(2));
+    }
+}
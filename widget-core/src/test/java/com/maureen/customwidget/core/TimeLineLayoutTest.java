@@ -0,0 +1,94 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 时间线可见节点范围测试
+ */
+public class TimeLineLayoutTest {
+    private static final int NODE_HEIGHT = 100;
+    private static final int EXTENT_ABOVE = 4;
+    private static final int OVERSHOOT_BELOW = 30;
+
+    private static TimeLineLayout layout(int nodeCount) {
+        TimeLineLayout layout = new TimeLineLayout();
+        layout.heights().append(nodeCount, NODE_HEIGHT);
+        layout.setExtents(EXTENT_ABOVE, OVERSHOOT_BELOW);
+        return layout;
+    }
+
+    @Test
+    public void visibleRange_includesPartiallyVisibleNodes() {
+        TimeLineLayout layout = layout(100);
+        // 节点2的竖线延伸到330，节点5从496开始绘制
+        assertEquals(2, layout.firstVisible(329));
+        assertEquals(3, layout.firstVisible(330));
+        assertEquals(4, layout.lastVisible(496));
+        assertEquals(5, layout.lastVisible(497));
+    }
+
+    @Test
+    public void visibleRange_clampsToNodeCount() {
+        TimeLineLayout layout = layout(3);
+        assertEquals(0, layout.firstVisible(-1000));
+        assertEquals(2, layout.lastVisible(100_000));
+        assertEquals(3, layout.firstVisible(100_000));
+        assertEquals(-1, layout.lastVisible(-1000));
+    }
+
+    @Test
+    public void visibleRange_followsVariableHeights() {
+        TimeLineLayout layout = layout(10);
+        layout.heights().set(0, 400);
+        // 节点1从400开始
+        assertEquals(0, layout.firstVisible(429));
+        assertEquals(1, layout.firstVisible(430));
+        assertEquals(0, layout.lastVisible(396));
+        assertEquals(1, layout.lastVisible(397));
+        assertEquals(1, layout.getNodeAt(450));
+        assertEquals(-1, layout.getNodeAt(1300));
+    }
+
+    @Test
+    public void contentBottom_coversLastNode() {
+        assertEquals(0, layout(0).getContentBottom(40));
+        TimeLineLayout layout = layout(3);
+        assertEquals(300, layout.getContentBottom(40));
+        layout.heights().set(2, 10);
+        assertEquals(240, layout.getContentBottom(40));
+    }
+
+    @Test
+    public void geometry_stretchesLinesWithNodeHeight() {
+        TimeLineLayout layout = layout(3);
+        layout.heights().set(1, 150);
+        float[] centerY = new float[3];
+        float[] lines = new float[12];
+        assertEquals(2, layout.computeGeometry(0, 2, 10, 13, 2, -20, centerY, lines));
+        assertArrayEquals(new float[]{13, 113, 263}, centerY, 0f);
+        assertEquals(15, lines[1], 0f);
+        assertEquals(93, lines[3], 0f);
+        assertEquals(115, lines[5], 0f);
+        assertEquals(243, lines[7], 0f);
+        assertEquals(1, layout.computeGeometry(1, 2, 10, 13, 2, -20, centerY, lines));
+        assertEquals(113, centerY[0], 0f);
+    }
+
+    @Test
+    public void visibleCount_staysConstantAsNodeCountGrows() {
+        int viewportTop = 5_000;
+        int viewportBottom = viewportTop + 1_920;
+        int expected = -1;
+        for (int nodeCount = 1_000; nodeCount <= 1_000_000; nodeCount *= 10) {
+            TimeLineLayout layout = layout(nodeCount);
+            int visible = layout.lastVisible(viewportBottom) - layout.firstVisible(viewportTop) + 1;
+            if (expected < 0) {
+                expected = visible;
+            }
+            assertEquals(expected, visible);
+        }
+        assertTrue(expected <= 1_920 / NODE_HEIGHT + 3);
+    }
+}
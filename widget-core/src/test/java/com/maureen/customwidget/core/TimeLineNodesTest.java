@@ -0,0 +1,61 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 时间线节点数据测试
+ */
+public class TimeLineNodesTest {
+    private static final byte DONE = 0;
+    private static final byte PENDING = 2;
+
+    @Test
+    public void append_growsAndFillsDefaults() {
+        TimeLineNodes nodes = new TimeLineNodes();
+        nodes.append(3, DONE);
+        nodes.append(1000, PENDING);
+        assertEquals(1003, nodes.size());
+        assertEquals(DONE, nodes.getState(2));
+        assertEquals(PENDING, nodes.getState(1002));
+        assertFalse(nodes.hasCustomColor(500));
+        assertFalse(nodes.isHighlighted(500));
+    }
+
+    @Test
+    public void removeRange_shiftsFollowingNodes() {
+        TimeLineNodes nodes = new TimeLineNodes();
+        nodes.append(5, DONE);
+        for (int i = 0; i < 5; i++) {
+            nodes.set(i, DONE, 0xff000000 | i, i % 2 == 0);
+        }
+        nodes.removeRange(1, 3);
+        assertEquals(3, nodes.size());
+        assertEquals(0xff000000, nodes.getColor(0));
+        assertEquals(0xff000003, nodes.getColor(1));
+        assertEquals(0xff000004, nodes.getColor(2));
+        assertTrue(nodes.isHighlighted(2));
+        assertTrue(nodes.hasCustomColor(1));
+    }
+
+    @Test
+    public void set_transparentCustomColor_isNotDefault() {
+        TimeLineNodes nodes = new TimeLineNodes();
+        nodes.append(2, DONE);
+        nodes.set(0, DONE, 0x00000000, false);
+        nodes.set(1, PENDING, true);
+        assertTrue(nodes.hasCustomColor(0));
+        assertEquals(0, nodes.getColor(0));
+        assertFalse(nodes.hasCustomColor(1));
+        assertTrue(nodes.isHighlighted(1));
+        assertEquals(PENDING, nodes.getState(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void set_outOfRange_throws() {
+        TimeLineNodes nodes = new TimeLineNodes();
+        nodes.append(2, DONE);
+        nodes.set(2, DONE, 0, false);
+    }
+}
@@ -0,0 +1,103 @@
+package com.maureen.customwidget.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 绘制统计测试：直方图分桶、快照、监听器间隔和多线程计数
+ */
+public class WidgetMetricsTest {
+
+    @Test
+    public void histogram_bucketsByUpperBound() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(0, LatencyHistogram.bucketOf(249_999));
+        assertEquals(1, LatencyHistogram.bucketOf(250_000));
+        assertEquals(6, LatencyHistogram.bucketOf(15_999_999));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void snapshot_reportsDrawsAndInvalidations() {
+        WidgetMetrics metrics = new WidgetMetrics();
+        metrics.recordDraw(0, 100_000);
+        metrics.recordDraw(0, 3_000_000);
+        metrics.recordDraw(0, 20_000_000);
+        metrics.recordInvalidate(false);
+        metrics.recordInvalidate(true);
+        metrics.recordRippleSpawned();
+        metrics.setActiveRipples(4);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.framesDrawn);
+        assertEquals(20_000_000, snapshot.maxDrawNanos);
+        assertEquals(23_100_000 / 3, snapshot.getAverageDrawNanos());
+        assertEquals(1, snapshot.getDrawTimeCount(0));
+        assertEquals(1, snapshot.getDrawTimeCount(4));
+        assertEquals(1, snapshot.getDrawTimeCount(7));
+        assertEquals(4_000_000, snapshot.getDrawTimePercentileNanos(0.5));
+        assertEquals(32_000_000, snapshot.getDrawTimePercentileNanos(1));
+        assertEquals(2, snapshot.invalidationsRequested);
+        assertEquals(1, snapshot.invalidationsCoalesced);
+        assertEquals(1, snapshot.ripplesSpawned);
+        assertEquals(4, snapshot.activeRipples);
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().framesDrawn);
+        assertEquals(0, metrics.snapshot().getDrawTimePercentileNanos(0.99));
+    }
+
+    @Test
+    public void listener_calledOncePerInterval() {
+        WidgetMetrics metrics = new WidgetMetrics();
+        final List<MetricsSnapshot> reports = new ArrayList<>();
+        metrics.setListener(new WidgetMetrics.Listener() {
+            @Override
+            public void onMetrics(MetricsSnapshot snapshot) {
+                reports.add(snapshot);
+            }
+        }, 1000);
+        long frame = 16_000_000L;
+        for (long t = 1_000_000_000L; t < 3_500_000_000L; t += frame) {
+            metrics.recordDraw(t, t + 1_000_000);
+        }
+        assertEquals(3, reports.size());
+        assertTrue(reports.get(1).framesDrawn > reports.get(0).framesDrawn);
+    }
+
+    @Test
+    public void counters_areExactUnderContention() throws InterruptedException {
+        final WidgetMetrics metrics = new WidgetMetrics();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final long drawNanos = (i + 1) * 1_000_000L;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10_000; j++) {
+                        metrics.recordDraw(0, drawNanos);
+                        metrics.recordInvalidate(j % 2 == 0);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(40_000, snapshot.framesDrawn);
+        assertEquals(40_000, snapshot.invalidationsRequested);
+        assertEquals(20_000, snapshot.invalidationsCoalesced);
+        assertEquals(4_000_000, snapshot.maxDrawNanos);
+        long bucketed = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            bucketed += snapshot.getDrawTimeCount(i);
+        }
+        assertEquals(40_000, bucketed);
+    }
+}